@@ -0,0 +1,86 @@
+package com.example.shop;
+
+import java.util.*;
+import java.util.function.ObjIntConsumer;
+
+// A shopping cart as product id -> quantity with a running total, so adding, removing and
+// totalling are O(1) instead of a scan over every line item. Money is kept in whole cents, so
+// the running total is exact however many adds and removes it has seen.
+class Cart {
+    private static final class Line {
+        final Product product;
+        final long unitCents;   // price when first added, so later catalog changes cannot skew the total
+        int quantity;
+
+        Line(Product product) {
+            this.product = product;
+            this.unitCents = PricingEngine.toCents(product.price);
+        }
+    }
+
+    private final Map<Integer, Line> lines = new LinkedHashMap<>();   // insertion order for display
+    private long totalCents;
+    private int items;
+
+    void add(Product p) {
+        add(p, 1);
+    }
+
+    void add(Product p, int quantity) {
+        if (quantity <= 0) return;
+        Line line = lines.computeIfAbsent(p.id, id -> new Line(p));
+        line.quantity += quantity;
+        items += quantity;
+        totalCents += line.unitCents * quantity;
+    }
+
+    // Removes up to 'quantity' units of a product; returns how many were removed
+    int remove(int productId, int quantity) {
+        Line line = lines.get(productId);
+        if (line == null || quantity <= 0) return 0;
+        int removed = Math.min(quantity, line.quantity);
+        line.quantity -= removed;
+        if (line.quantity == 0) lines.remove(productId);
+        items -= removed;
+        totalCents -= line.unitCents * removed;
+        return removed;
+    }
+
+    // Removes every unit of a product
+    int removeAll(int productId) {
+        return remove(productId, Integer.MAX_VALUE);
+    }
+
+    int quantity(int productId) {
+        Line line = lines.get(productId);
+        return line == null ? 0 : line.quantity;
+    }
+
+    long totalCents() { return totalCents; }
+
+    double total() { return totalCents / 100.0; }
+
+    int itemCount() { return items; }
+
+    int distinctCount() { return lines.size(); }
+
+    boolean isEmpty() { return items == 0; }
+
+    void clear() {
+        lines.clear();
+        items = 0;
+        totalCents = 0;
+    }
+
+    // Products in the order they were first added
+    List<Product> products() {
+        List<Product> out = new ArrayList<>(lines.size());
+        for (Line line : lines.values()) out.add(line.product);
+        return out;
+    }
+
+    // Visits each product with its quantity
+    void forEach(ObjIntConsumer<Product> action) {
+        for (Line line : lines.values()) action.accept(line.product, line.quantity);
+    }
+}
@@ -0,0 +1,182 @@
+package com.example.shop;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+// Multi-tenant version of ShoppingCart: one Cart per session id instead of one static cart per JVM.
+//
+// Sessions live in a ConcurrentHashMap and every operation on a session holds that session's
+// lock stripe, so different sessions proceed in parallel and one session's requests never
+// interleave. The catalog and coupons are immutable snapshots behind volatile fields: readers
+// never lock, and publishCatalog() swaps in a new snapshot atomically. Totals are exact cents
+// priced by PricingEngine. Carts that have been idle for longer than the TTL are dropped by a
+// background sweeper.
+class CartService implements AutoCloseable {
+    private static final int LOCK_STRIPES = 256;
+
+    private static final class Session {
+        final Cart cart = new Cart();
+        long coupons;             // PricingEngine mask of the applied coupons
+        volatile long lastAccess;
+    }
+
+    private final Map<String, Session> sessions = new ConcurrentHashMap<>();
+    private final ReentrantLock[] stripes = new ReentrantLock[LOCK_STRIPES];
+    private final long ttlNanos;
+    private final ScheduledExecutorService sweeper;
+
+    // Published snapshots; never modified after publication
+    private volatile ProductCatalog catalog = new ProductCatalog();
+    private volatile PricingEngine pricing = new PricingEngine();
+
+    CartService(long ttl, TimeUnit unit) {
+        for (int i = 0; i < LOCK_STRIPES; i++) stripes[i] = new ReentrantLock();
+        ttlNanos = unit.toNanos(ttl);
+        sweeper = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "cart-sweeper");
+            t.setDaemon(true);
+            return t;
+        });
+        long period = Math.max(1, ttlNanos / 4);
+        sweeper.scheduleWithFixedDelay(this::evictIdle, period, period, TimeUnit.NANOSECONDS);
+    }
+
+    // --- Catalog ---
+
+    // Makes 'next' the catalog for every later request. The caller hands it over: it must not
+    // be modified afterwards. Carts keep the prices their items were added at.
+    void publishCatalog(ProductCatalog next) {
+        catalog = next;
+    }
+
+    // Same hand-over rule as publishCatalog(). Coupons already applied to a cart refer to rule
+    // indexes, so a new engine should keep the existing rules in place and append new ones.
+    void publishPricing(PricingEngine next) {
+        pricing = next;
+    }
+
+    ProductCatalog catalog() {
+        return catalog;
+    }
+
+    // --- Cart operations ---
+
+    // false if the product is not in the catalog
+    boolean addItem(String sessionId, int productId, int quantity) {
+        Product p = catalog.get(productId);
+        if (p == null) return false;
+        ReentrantLock lock = lock(sessionId);
+        try {
+            session(sessionId).cart.add(p, quantity);
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Number of units actually removed
+    int removeItem(String sessionId, int productId, int quantity) {
+        ReentrantLock lock = lock(sessionId);
+        try {
+            Session s = existing(sessionId);
+            return s == null ? 0 : s.cart.remove(productId, quantity);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Adds a coupon to the cart (coupons stack); false (and no change) if the code is unknown
+    boolean applyCoupon(String sessionId, String code) {
+        long coupon = pricing.maskOf(code);
+        if (coupon == 0) return false;
+        ReentrantLock lock = lock(sessionId);
+        try {
+            session(sessionId).coupons |= coupon;
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Cart total in cents after its coupons
+    long totalCents(String sessionId) {
+        ReentrantLock lock = lock(sessionId);
+        try {
+            Session s = existing(sessionId);
+            return s == null ? 0 : pricing.checkout(s.cart.totalCents(), s.coupons);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    int itemCount(String sessionId) {
+        ReentrantLock lock = lock(sessionId);
+        try {
+            Session s = sessions.get(sessionId);
+            return s == null ? 0 : s.cart.itemCount();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    void endSession(String sessionId) {
+        ReentrantLock lock = lock(sessionId);
+        try {
+            sessions.remove(sessionId);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    int sessionCount() {
+        return sessions.size();
+    }
+
+    @Override
+    public void close() {
+        sweeper.shutdownNow();
+    }
+
+    // --- Sessions ---
+
+    // Caller holds the session's stripe
+    private Session session(String sessionId) {
+        Session s = sessions.computeIfAbsent(sessionId, id -> new Session());
+        s.lastAccess = System.nanoTime();
+        return s;
+    }
+
+    // Caller holds the session's stripe; null if the session has no cart
+    private Session existing(String sessionId) {
+        Session s = sessions.get(sessionId);
+        if (s != null) s.lastAccess = System.nanoTime();
+        return s;
+    }
+
+    // Drops idle sessions. The check is repeated under the stripe so a cart that is in use
+    // right now is never evicted.
+    void evictIdle() {
+        long now = System.nanoTime();
+        for (Map.Entry<String, Session> e : sessions.entrySet()) {
+            if (now - e.getValue().lastAccess < ttlNanos) continue;
+            ReentrantLock lock = lock(e.getKey());
+            try {
+                Session s = sessions.get(e.getKey());
+                if (s != null && now - s.lastAccess >= ttlNanos) sessions.remove(e.getKey());
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    private ReentrantLock lock(String sessionId) {
+        int h = sessionId.hashCode() * 0x9E3779B9;
+        ReentrantLock lock = stripes[h >>> 24];
+        lock.lock();
+        return lock;
+    }
+}
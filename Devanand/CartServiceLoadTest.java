@@ -0,0 +1,104 @@
+package com.example.shop;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+// Throughput of CartService at 1, 2, 4 ... N threads with an add/remove/total/apply-coupon mix
+// over a shared pool of sessions, while the catalog is republished every 100 ms. Ends with a
+// TTL check: after the load stops every session must be evicted.
+//
+// Usage: java CartServiceLoadTest [seconds per thread count] [sessions] [products]
+public class CartServiceLoadTest {
+
+    public static void main(String[] args) throws Exception {
+        int seconds = args.length > 0 ? Integer.parseInt(args[0]) : 3;
+        int sessionCount = args.length > 1 ? Integer.parseInt(args[1]) : 100_000;
+        int products = args.length > 2 ? Integer.parseInt(args[2]) : 10_000;
+        int cores = Runtime.getRuntime().availableProcessors();
+
+        CartService service = new CartService(2, TimeUnit.SECONDS);
+        service.publishCatalog(catalog(products, 1.0));
+        PricingEngine pricing = new PricingEngine();
+        pricing.addPercentOff("NEW10", 1_000);
+        pricing.addPercentOff("SALE20", 2_000);
+        service.publishPricing(pricing);
+        String[] sessions = new String[sessionCount];
+        for (int i = 0; i < sessionCount; i++) sessions[i] = "session-" + i;
+
+        // republish the catalog with new prices while the load runs
+        AtomicBoolean publishing = new AtomicBoolean(true);
+        Thread publisher = new Thread(() -> {
+            for (int round = 1; publishing.get(); round++) {
+                service.publishCatalog(catalog(products, 1.0 + (round % 10) / 100.0));
+                try {
+                    Thread.sleep(100);
+                } catch (InterruptedException e) {
+                    return;
+                }
+            }
+        });
+        publisher.setDaemon(true);
+        publisher.start();
+
+        double base = 0;
+        for (int threads = 1; threads <= Math.max(4, cores * 2); threads *= 2) {
+            double opsPerSec = run(service, sessions, products, threads, seconds);
+            if (threads == 1) base = opsPerSec;
+            System.out.printf("%2d threads: %,12.0f ops/s  (%.2fx)%n", threads, opsPerSec, opsPerSec / base);
+        }
+        publishing.set(false);
+        System.out.println("(" + cores + " cores available; scaling stops at the core count)");
+
+        System.out.println("Sessions after load: " + service.sessionCount());
+        Thread.sleep(3_500);
+        System.out.println("Sessions after TTL:  " + service.sessionCount()
+                + (service.sessionCount() == 0 ? "  OK" : "  FAIL"));
+        service.close();
+    }
+
+    static ProductCatalog catalog(int products, double priceFactor) {
+        ProductCatalog c = new ProductCatalog();
+        for (int i = 0; i < products; i++) {
+            c.put(new Product(i, "Product " + i, Math.round((5 + i % 500) * priceFactor * 100) / 100.0, i % 1000));
+        }
+        return c;
+    }
+
+    static double run(CartService service, String[] sessions, int products, int threads, int seconds) throws Exception {
+        AtomicBoolean running = new AtomicBoolean(true);
+        LongAdder ops = new LongAdder();
+        CountDownLatch ready = new CountDownLatch(threads);
+        List<Thread> workers = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            workers.add(new Thread(() -> {
+                ThreadLocalRandom rnd = ThreadLocalRandom.current();
+                long done = 0;
+                ready.countDown();
+                long sink = 0;
+                while (running.get()) {
+                    String session = sessions[rnd.nextInt(sessions.length)];
+                    int dice = rnd.nextInt(100);
+                    if (dice < 40) service.addItem(session, rnd.nextInt(products), 1 + rnd.nextInt(3));
+                    else if (dice < 70) service.removeItem(session, rnd.nextInt(products), 1);
+                    else if (dice < 95) sink += service.totalCents(session);
+                    else service.applyCoupon(session, dice % 2 == 0 ? "NEW10" : "SALE20");
+                    done++;
+                }
+                ops.add(done);
+                if (sink < 0) System.out.println(sink);
+            }));
+        }
+        workers.forEach(Thread::start);
+        ready.await();
+        long start = System.nanoTime();
+        Thread.sleep(seconds * 1000L);
+        running.set(false);
+        for (Thread w : workers) w.join();
+        return ops.sum() / ((System.nanoTime() - start) / 1e9);
+    }
+}
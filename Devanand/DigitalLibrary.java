@@ -1,13 +1,31 @@
+package com.example.library;
+
 import java.io.*;
+import java.net.InetAddress;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+import java.util.concurrent.locks.ReentrantLock;
+import com.hacktoberfest2025.metrics.Metrics;
 
 // Book class (OOP)
 class Book implements Serializable {
+    // Pinned to the value of the original class so old books.dat files still load
+    private static final long serialVersionUID = -7860673542687411225L;
+    private static final AtomicIntegerFieldUpdater<Book> COPIES =
+            AtomicIntegerFieldUpdater.newUpdater(Book.class, "availableCopies");
+
     private int id;
     private String title;
     private String author;
     private String genre;
-    private int availableCopies;
+    private volatile int availableCopies;
 
     public Book(int id, String title, String author, String genre, int availableCopies) {
         this.id = id;
@@ -23,8 +41,18 @@ class Book implements Serializable {
     public String getGenre() { return genre; }
     public int getAvailableCopies() { return availableCopies; }
 
-    public void borrowBook() { if (availableCopies > 0) availableCopies--; }
-    public void returnBook() { availableCopies++; }
+    // Takes one copy if any is left (CAS, so concurrent callers can never oversell)
+    public boolean tryBorrow() {
+        int copies;
+        do {
+            copies = availableCopies;
+            if (copies <= 0) return false;
+        } while (!COPIES.compareAndSet(this, copies, copies - 1));
+        return true;
+    }
+
+    public void borrowBook() { tryBorrow(); }
+    public void returnBook() { COPIES.incrementAndGet(this); }
 
     @Override
     public String toString() {
@@ -34,81 +62,245 @@ class Book implements Serializable {
 
 // User class (OOP)
 class User implements Serializable {
+    private static final long serialVersionUID = -7585925810957214060L;
+
+    // Serialized form stays (id, name, List<Integer> borrowedBooks) for old users.dat files
+    private static final ObjectStreamField[] serialPersistentFields = {
+        new ObjectStreamField("id", int.class),
+        new ObjectStreamField("name", String.class),
+        new ObjectStreamField("borrowedBooks", List.class)
+    };
+
     private int id;
     private String name;
-    private List<Integer> borrowedBooks;
+    // book id -> number of copies this user holds
+    private IntMultiset borrowedBooks;
 
     public User(int id, String name) {
         this.id = id;
         this.name = name;
-        this.borrowedBooks = new ArrayList<>();
+        this.borrowedBooks = new IntMultiset();
     }
 
     public int getId() { return id; }
     public String getName() { return name; }
-    public List<Integer> getBorrowedBooks() { return borrowedBooks; }
+    // Every borrowed copy's book id (repeated if several copies are held)
+    public int[] getBorrowedBooks() { return borrowedBooks.toArray(); }
+    public int getLoanCount() { return borrowedBooks.size(); }
+    public boolean hasBorrowed(int bookId) { return borrowedBooks.contains(bookId); }
 
     public void borrowBook(int bookId) { borrowedBooks.add(bookId); }
-    public void returnBook(int bookId) { borrowedBooks.remove(Integer.valueOf(bookId)); }
+    public boolean returnBook(int bookId) { return borrowedBooks.remove(bookId); }
 
     @Override
     public String toString() {
         return "User [" + id + "] " + name + " | Borrowed: " + borrowedBooks;
     }
+
+    private void writeObject(ObjectOutputStream out) throws IOException {
+        List<Integer> borrowed = new ArrayList<>(borrowedBooks.size());
+        for (int bookId : borrowedBooks.toArray()) borrowed.add(bookId);
+        ObjectOutputStream.PutField fields = out.putFields();
+        fields.put("id", id);
+        fields.put("name", name);
+        fields.put("borrowedBooks", borrowed);
+        out.writeFields();
+    }
+
+    @SuppressWarnings("unchecked")
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        ObjectInputStream.GetField fields = in.readFields();
+        id = fields.get("id", 0);
+        name = (String) fields.get("name", null);
+        borrowedBooks = new IntMultiset();
+        List<Integer> borrowed = (List<Integer>) fields.get("borrowedBooks", null);
+        if (borrowed != null) {
+            for (int bookId : borrowed) borrowedBooks.add(bookId);
+        }
+    }
 }
 
 // Library class (Collections + File Handling)
+// Safe to share between threads. Copies are taken with a CAS, and every mutation holds the
+// striped lock(s) of the user and/or book it touches. Pairs of locks are always acquired in
+// stripe order, so two operations can never wait on each other. Compaction runs on its own
+// thread and takes every stripe only while it captures the state, never while it writes files.
 class Library {
-    private Map<Integer, Book> books = new HashMap<>();
-    private Map<Integer, User> users = new HashMap<>();
+    private static final int LOCK_STRIPES = 256;
+
+    private final Map<Integer, Book> books = new ConcurrentHashMap<>();
+    private final Map<Integer, User> users = new ConcurrentHashMap<>();
+    private final ReentrantLock[] stripes = new ReentrantLock[LOCK_STRIPES];
 
+    // Legacy full-serialization files, imported once into the journal store
     private final String BOOKS_FILE = "books.dat";
     private final String USERS_FILE = "users.dat";
+    private static final String DATA_DIR = "library-data";
+
+    private final Path dataDir;
+    private final Path legacyDir;
+    private LibraryJournal journal;
+    private final ExecutorService compactor = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "library-compactor");
+        t.setDaemon(true);
+        return t;
+    });
+    private final AtomicBoolean compactionQueued = new AtomicBoolean();
+    private final LibraryIndex index = new LibraryIndex();
+    // book id -> ids of the users holding it (guarded by the book's stripe)
+    private final Map<Integer, IntMultiset> borrowersByBook = new ConcurrentHashMap<>();
+
+    // Per-operation latency and rejections, shared by all Library instances (see Metrics)
+    private static final Metrics.Histogram ADD_BOOK_TIME = opTime("add_book");
+    private static final Metrics.Histogram ADD_USER_TIME = opTime("add_user");
+    private static final Metrics.Histogram BORROW_TIME = opTime("borrow");
+    private static final Metrics.Histogram RETURN_TIME = opTime("return");
+    private static final Metrics.Histogram SEARCH_TIME = opTime("search");
+    private static final Metrics.Counter BORROW_REJECTED = rejected("borrow");
+    private static final Metrics.Counter RETURN_REJECTED = rejected("return");
+
+    private static Metrics.Histogram opTime(String op) {
+        return Metrics.global().histogram("library_op_duration_seconds", "Library operation latency.", "op", op);
+    }
+
+    private static Metrics.Counter rejected(String op) {
+        return Metrics.global().counter("library_op_rejected_total",
+                "Operations refused (unknown user or book, no copy left, not borrowed).", "op", op);
+    }
 
     public Library() {
+        this(Paths.get(DATA_DIR));
+    }
+
+    public Library(Path dataDir) {
+        this(dataDir, Paths.get(""));
+    }
+
+    // 'legacyDir' is where the old books.dat/users.dat are looked for (the working directory,
+    // as before the journal existed)
+    Library(Path dataDir, Path legacyDir) {
+        this.dataDir = dataDir;
+        this.legacyDir = legacyDir;
+        for (int i = 0; i < LOCK_STRIPES; i++) stripes[i] = new ReentrantLock();
         loadData();
     }
 
-    // Add book
+    // Add book; IllegalArgumentException if a field is too long to store
     public void addBook(Book book) {
-        books.put(book.getId(), book);
-        saveData();
+        long start = System.nanoTime();
+        LibraryJournal.checkFields(book);
+        int stripe = bookStripe(book.getId());
+        lock(stripe, stripe);
+        try {
+            Book previous = books.put(book.getId(), book);
+            synchronized (index) {
+                if (previous != null) index.remove(previous);
+                index.add(book);
+            }
+            persist(() -> journal.addBook(book));
+        } finally {
+            unlock(stripe, stripe);
+        }
+        compactIfDue();
+        ADD_BOOK_TIME.recordSince(start);
     }
 
-    // Add user
+    // Add user; IllegalArgumentException if the name is too long to store
     public void addUser(User user) {
-        users.put(user.getId(), user);
-        saveData();
+        long start = System.nanoTime();
+        LibraryJournal.checkFields(user);
+        int stripe = userStripe(user.getId());
+        lock(stripe, stripe);
+        try {
+            users.put(user.getId(), user);
+            persist(() -> journal.addUser(user));
+        } finally {
+            unlock(stripe, stripe);
+        }
+        compactIfDue();
+        ADD_USER_TIME.recordSince(start);
+    }
+
+    // Borrow book; false if the user or book is unknown or no copy is left
+    public boolean borrowBook(int userId, int bookId) {
+        long start = System.nanoTime();
+        boolean ok = borrow(userId, bookId);
+        BORROW_TIME.recordSince(start);
+        if (!ok) BORROW_REJECTED.inc();
+        return ok;
     }
 
-    // Borrow book
-    public void borrowBook(int userId, int bookId) {
+    private boolean borrow(int userId, int bookId) {
         User user = users.get(userId);
         Book book = books.get(bookId);
-        if (user != null && book != null && book.getAvailableCopies() > 0) {
-            book.borrowBook();
+        if (user == null || book == null) return false;
+        int us = userStripe(userId), bs = bookStripe(bookId);
+        lock(us, bs);
+        try {
+            if (!book.tryBorrow()) return false;
             user.borrowBook(bookId);
-            System.out.println(user.getName() + " borrowed " + book.getTitle());
-        } else {
-            System.out.println("Borrowing failed!");
+            borrowersByBook.computeIfAbsent(bookId, k -> new IntMultiset()).add(userId);
+            if (book.getAvailableCopies() == 0) {
+                synchronized (index) { index.updateAvailability(book); }
+            }
+            persist(() -> journal.borrow(userId, bookId));
+        } finally {
+            unlock(us, bs);
         }
-        saveData();
+        compactIfDue();
+        return true;
     }
 
-    // Return book
-    public void returnBook(int userId, int bookId) {
+    // Return book; false unless the user currently has this book
+    public boolean returnBook(int userId, int bookId) {
+        long start = System.nanoTime();
+        boolean ok = giveBack(userId, bookId);
+        RETURN_TIME.recordSince(start);
+        if (!ok) RETURN_REJECTED.inc();
+        return ok;
+    }
+
+    private boolean giveBack(int userId, int bookId) {
         User user = users.get(userId);
         Book book = books.get(bookId);
-        if (user != null && book != null && user.getBorrowedBooks().contains(bookId)) {
+        if (user == null || book == null) return false;
+        int us = userStripe(userId), bs = bookStripe(bookId);
+        lock(us, bs);
+        try {
+            if (!user.hasBorrowed(bookId)) return false;
             book.returnBook();
             user.returnBook(bookId);
-            System.out.println(user.getName() + " returned " + book.getTitle());
-        } else {
-            System.out.println("Return failed!");
+            IntMultiset holders = borrowersByBook.get(bookId);
+            holders.remove(userId);
+            if (holders.isEmpty()) borrowersByBook.remove(bookId);
+            if (book.getAvailableCopies() == 1) {
+                synchronized (index) { index.updateAvailability(book); }
+            }
+            persist(() -> journal.returnBook(userId, bookId));
+        } finally {
+            unlock(us, bs);
+        }
+        compactIfDue();
+        return true;
+    }
+
+    // Ids of the users currently holding a copy of the book
+    public int[] whoHas(int bookId) {
+        int stripe = bookStripe(bookId);
+        lock(stripe, stripe);
+        try {
+            IntMultiset holders = borrowersByBook.get(bookId);
+            return holders == null ? new int[0] : holders.distinctValues();
+        } finally {
+            unlock(stripe, stripe);
         }
-        saveData();
     }
 
+    public Book getBook(int id) { return books.get(id); }
+    public User getUser(int id) { return users.get(id); }
+    public Collection<Book> getBooks() { return books.values(); }
+    public Collection<User> getUsers() { return users.values(); }
+
     // Show all books
     public void showBooks() {
         for (Book b : books.values()) {
@@ -116,6 +308,19 @@ class Library {
         }
     }
 
+    // Search books through the secondary indexes; null or blank criteria are ignored
+    public List<Book> searchBooks(String genre, String author, String title, boolean availableOnly) {
+        long start = System.nanoTime();
+        int[] ids;
+        synchronized (index) {
+            ids = index.search(genre, author, title, availableOnly);
+        }
+        List<Book> result = new ArrayList<>(ids.length);
+        for (int id : ids) result.add(books.get(id));
+        SEARCH_TIME.recordSince(start);
+        return result;
+    }
+
     // Show all users
     public void showUsers() {
         for (User u : users.values()) {
@@ -123,34 +328,163 @@ class Library {
         }
     }
 
-    // Save data to file (serialization)
-    private void saveData() {
-        try (ObjectOutputStream out1 = new ObjectOutputStream(new FileOutputStream(BOOKS_FILE));
-             ObjectOutputStream out2 = new ObjectOutputStream(new FileOutputStream(USERS_FILE))) {
-            out1.writeObject(books);
-            out2.writeObject(users);
+    // Flush pending journal records to disk
+    public void close() {
+        compactor.shutdown();
+        try {
+            compactor.awaitTermination(1, TimeUnit.MINUTES);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        try {
+            journal.close();
         } catch (IOException e) {
             e.printStackTrace();
         }
     }
 
-    // Load data from file
+    private interface JournalWrite {
+        void run() throws IOException;
+    }
+
+    // Append one mutation to the journal (buffered and fsynced in batches by LibraryJournal)
+    private void persist(JournalWrite write) {
+        try {
+            write.run();
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    // Snapshot once the journal gets long. The caller only queues the work for the compactor.
+    private void compactIfDue() {
+        if (journal.shouldCompact() && compactionQueued.compareAndSet(false, true)) {
+            compactor.execute(this::compact);
+        }
+    }
+
+    // Holding every stripe guarantees nothing changes while the state is captured; the snapshot
+    // is written after the stripes are released
+    private void compact() {
+        try {
+            LibraryJournal.PendingSnapshot snapshot = null;
+            lockAll();
+            try {
+                if (journal.shouldCompact()) snapshot = journal.beginCompaction(books, users);
+            } finally {
+                unlockAll();
+            }
+            if (snapshot != null) journal.finishCompaction(snapshot);
+        } catch (IOException e) {
+            e.printStackTrace();
+        } finally {
+            compactionQueued.set(false);
+        }
+    }
+
+    // --- Lock striping ---
+
+    private static int userStripe(int userId) {
+        return (userId * 0x9E3779B9) >>> 24;
+    }
+
+    private static int bookStripe(int bookId) {
+        return (bookId * 0x85EBCA6B) >>> 24;
+    }
+
+    // Locks two stripes, lower index first (once if they are the same)
+    private void lock(int a, int b) {
+        stripes[Math.min(a, b)].lock();
+        if (a != b) stripes[Math.max(a, b)].lock();
+    }
+
+    private void unlock(int a, int b) {
+        if (a != b) stripes[Math.max(a, b)].unlock();
+        stripes[Math.min(a, b)].unlock();
+    }
+
+    private void lockAll() {
+        for (ReentrantLock stripe : stripes) stripe.lock();
+    }
+
+    private void unlockAll() {
+        for (int i = LOCK_STRIPES - 1; i >= 0; i--) stripes[i].unlock();
+    }
+
+    // Load snapshot + journal; on first run import the old books.dat/users.dat if present
     private void loadData() {
-        try (ObjectInputStream in1 = new ObjectInputStream(new FileInputStream(BOOKS_FILE));
-             ObjectInputStream in2 = new ObjectInputStream(new FileInputStream(USERS_FILE))) {
-            books = (Map<Integer, Book>) in1.readObject();
-            users = (Map<Integer, User>) in2.readObject();
-        } catch (Exception e) {
-            // first run (files may not exist)
-            books = new HashMap<>();
-            users = new HashMap<>();
+        try {
+            journal = LibraryJournal.open(dataDir, books, users);
+            if (books.isEmpty() && users.isEmpty() && loadLegacyData()) {
+                journal.compact(books, users);
+            }
+            // index in id order so posting lists are built by appending
+            int[] ids = books.keySet().stream().mapToInt(Integer::intValue).sorted().toArray();
+            for (int id : ids) index.add(books.get(id));
+            for (User u : users.values()) {
+                for (int bookId : u.getBorrowedBooks()) {
+                    borrowersByBook.computeIfAbsent(bookId, k -> new IntMultiset()).add(u.getId());
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot open library data in " + dataDir, e);
+        }
+    }
+
+    // Returns false if there are no legacy files; files that exist but cannot be read fail the
+    // import rather than silently starting an empty library
+    @SuppressWarnings("unchecked")
+    private boolean loadLegacyData() throws IOException {
+        File booksFile = legacyDir.resolve(BOOKS_FILE).toFile();
+        File usersFile = legacyDir.resolve(USERS_FILE).toFile();
+        if (!booksFile.exists() && !usersFile.exists()) return false;
+        try (ObjectInputStream in1 = new LegacyInputStream(new BufferedInputStream(new FileInputStream(booksFile)));
+             ObjectInputStream in2 = new LegacyInputStream(new BufferedInputStream(new FileInputStream(usersFile)))) {
+            books.putAll((Map<Integer, Book>) in1.readObject());
+            users.putAll((Map<Integer, User>) in2.readObject());
+            return true;
+        } catch (ClassNotFoundException | ClassCastException e) {
+            throw new IOException("Cannot import " + booksFile + " and " + usersFile, e);
+        }
+    }
+
+    // The legacy files name Book and User without a package, as they were declared before the
+    // build moved them into com.example.library
+    private static final class LegacyInputStream extends ObjectInputStream {
+        LegacyInputStream(InputStream in) throws IOException {
+            super(in);
+        }
+
+        @Override
+        protected Class<?> resolveClass(ObjectStreamClass desc) throws IOException, ClassNotFoundException {
+            switch (desc.getName()) {
+                case "Book":
+                    return Book.class;
+                case "User":
+                    return User.class;
+                default:
+                    return super.resolveClass(desc);
+            }
         }
     }
 }
 
 // Main class (User interaction)
+// Usage: java DigitalLibrary                     interactive menu
+//        java DigitalLibrary --serve [port] [loops]  network server (see LibraryServer), on
+//                                                    loopback unless -Dlibrary.address=<addr>
+// With -Dmetrics.port=N the server also exposes Prometheus metrics at http://127.0.0.1:N/metrics
 public class DigitalLibrary {
-    public static void main(String[] args) {
+    public static void main(String[] args) throws IOException {
+        if (args.length > 0 && args[0].equals("--serve")) {
+            int port = args.length > 1 ? Integer.parseInt(args[1]) : 7070;
+            int loops = args.length > 2 ? Integer.parseInt(args[2]) : Runtime.getRuntime().availableProcessors();
+            Integer metricsPort = Integer.getInteger("metrics.port");
+            if (metricsPort != null) Metrics.global().serve(metricsPort);
+            InetAddress address = InetAddress.getByName(System.getProperty("library.address", "127.0.0.1"));
+            LibraryServer.serve(address, port, loops);
+            return;
+        }
         Library library = new Library();
         Scanner sc = new Scanner(System.in);
 
@@ -162,6 +496,8 @@ public class DigitalLibrary {
             System.out.println("4. Return Book");
             System.out.println("5. Show All Books");
             System.out.println("6. Show All Users");
+            System.out.println("7. Search Books");
+            System.out.println("8. Who Has Book");
             System.out.println("0. Exit");
             System.out.print("Choose: ");
 
@@ -196,18 +532,45 @@ public class DigitalLibrary {
                     int uid = sc.nextInt();
                     System.out.print("Enter Book ID: ");
                     int bid = sc.nextInt();
-                    library.borrowBook(uid, bid);
+                    if (library.borrowBook(uid, bid)) {
+                        System.out.println(library.getUser(uid).getName() + " borrowed " + library.getBook(bid).getTitle());
+                    } else {
+                        System.out.println("Borrowing failed!");
+                    }
                 }
                 case 4 -> {
                     System.out.print("Enter User ID: ");
                     int uid = sc.nextInt();
                     System.out.print("Enter Book ID: ");
                     int bid = sc.nextInt();
-                    library.returnBook(uid, bid);
+                    if (library.returnBook(uid, bid)) {
+                        System.out.println(library.getUser(uid).getName() + " returned " + library.getBook(bid).getTitle());
+                    } else {
+                        System.out.println("Return failed!");
+                    }
                 }
                 case 5 -> library.showBooks();
                 case 6 -> library.showUsers();
+                case 7 -> {
+                    System.out.print("Genre (blank = any): ");
+                    String genre = sc.nextLine();
+                    System.out.print("Author (blank = any): ");
+                    String author = sc.nextLine();
+                    System.out.print("Title words (blank = any): ");
+                    String title = sc.nextLine();
+                    List<Book> found = library.searchBooks(genre, author, title, false);
+                    if (found.isEmpty()) System.out.println("No books found!");
+                    for (Book b : found) System.out.println(b);
+                }
+                case 8 -> {
+                    System.out.print("Enter Book ID: ");
+                    int bid = sc.nextInt();
+                    int[] holders = library.whoHas(bid);
+                    if (holders.length == 0) System.out.println("Nobody has this book.");
+                    for (int uid : holders) System.out.println(library.getUser(uid));
+                }
                 case 0 -> {
+                    library.close();
                     System.out.println("Exiting...");
                     return;
                 }
@@ -0,0 +1,63 @@
+package com.example.habits;
+
+import java.time.LocalDate;
+
+// A tracked habit (shown by HabitTrackerApp, persisted by HabitStore).
+// Kept free of JavaFX so storage and analytics can run headless.
+public class Habit {
+    private long id;            // assigned by HabitStore; 0 until first saved
+    private String name;
+    private String frequency;
+    private int streak;
+    private LocalDate lastDone;
+    private HabitHistory history;   // null until first done (and in files older than the log)
+
+    public Habit(String name, String frequency, int streak, LocalDate lastDone){
+        this.name=name; this.frequency=frequency; this.streak=streak; this.lastDone=lastDone;
+    }
+
+    // Detached copy, handed to the persistence thread
+    Habit(Habit h) {
+        this(h.name, h.frequency, h.streak, h.lastDone);
+        this.id = h.id;
+        this.history = h.history == null ? null : h.history.copy();
+    }
+
+    public long getId(){return id;}
+    public String getName(){return name;}
+    public String getFrequency(){return frequency;}
+    public int getStreak(){return streak;}
+    public LocalDate getLastDone(){return lastDone;}
+    public void setLastDone(LocalDate d){lastDone=d;}
+    public void setStreak(int s){streak=s;}
+
+    void setId(long id){this.id=id;}
+
+    HabitHistory getHistory(){return history;}
+
+    // Records a completion on 'day' and recomputes the streak; false if already done that day
+    public boolean markDone(LocalDate day){
+        if (!history(day).mark(day)) return false;
+        if (lastDone == null || day.isAfter(lastDone)) lastDone = day;
+        streak = history.streak(frequency, lastDone);
+        return true;
+    }
+
+    // Brings the streak up to date, e.g. a daily streak is 0 again once a whole day was missed
+    public void refreshStreak(LocalDate today){
+        if (history != null || streak > 0) streak = history(today).streak(frequency, today);
+    }
+
+    // Habits saved before the log existed only have streak + lastDone: seed the log with that
+    // many consecutive days (or weeks) ending at lastDone so the streak carries over
+    private HabitHistory history(LocalDate day){
+        if (history == null) {
+            history = new HabitHistory(lastDone != null ? lastDone : day);
+            boolean weekly = "Weekly".equalsIgnoreCase(frequency);
+            for (int i = 0; lastDone != null && i < streak; i++) {
+                history.mark(weekly ? lastDone.minusWeeks(i) : lastDone.minusDays(i));
+            }
+        }
+        return history;
+    }
+}
@@ -0,0 +1,44 @@
+package com.example.habits;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.util.Collection;
+
+// Roll-ups over many habits' completion logs (habits never done contribute nothing)
+class HabitAnalytics {
+
+    // Completions per calendar month of 'year', summed over all habits
+    static int[] monthlyTotals(Collection<Habit> habits, int year) {
+        long[] starts = HabitHistory.monthStarts(year);
+        int[] totals = new int[12];
+        for (Habit h : habits) {
+            HabitHistory log = h.getHistory();
+            if (log == null) continue;
+            for (int m = 0; m < 12; m++) totals[m] += log.count(starts[m], starts[m + 1] - 1);
+        }
+        return totals;
+    }
+
+    // Completions per week for 'weeks' weeks from the week containing 'from', summed over all habits
+    static int[] weeklyTotals(Collection<Habit> habits, LocalDate from, int weeks) {
+        long firstMonday = from.with(DayOfWeek.MONDAY).toEpochDay();
+        int[] totals = new int[weeks];
+        for (Habit h : habits) {
+            HabitHistory log = h.getHistory();
+            if (log == null) continue;
+            long monday = firstMonday;
+            for (int w = 0; w < weeks; w++, monday += 7) totals[w] += log.count(monday, monday + 6);
+        }
+        return totals;
+    }
+
+    // How many habits have a streak of at least 'minStreak' as of 'today'
+    static int onStreak(Collection<Habit> habits, LocalDate today, int minStreak) {
+        int n = 0;
+        for (Habit h : habits) {
+            HabitHistory log = h.getHistory();
+            if (log != null && log.streak(h.getFrequency(), today) >= minStreak) n++;
+        }
+        return n;
+    }
+}
@@ -0,0 +1,94 @@
+package com.example.habits;
+
+import java.util.*;
+
+// What the habit pie chart should show, kept up to date one habit at a time and free of JavaFX.
+//
+// put()/remove() record the latest state of a slice and queue the change. Changes to the same
+// habit between two frames are coalesced (add then update is one add, add then remove is
+// nothing), and drain() hands the net changes to the renderer once per frame, so a burst of
+// clicks or a bulk load costs one chart update per affected slice, not one per edit.
+//
+// Not thread-safe: confine it to one thread (the FX thread in HabitTrackerApp).
+class HabitChartModel {
+
+    enum Kind { ADDED, UPDATED, REMOVED }
+
+    static final class SliceChange {
+        final long id;
+        Kind kind;
+        String label;
+        double value;
+
+        SliceChange(long id, Kind kind) {
+            this.id = id;
+            this.kind = kind;
+        }
+    }
+
+    interface Renderer {
+        // Called once per frame with the net changes, in the order the habits were first touched
+        void apply(List<SliceChange> changes);
+    }
+
+    private final Map<Long, Double> values = new HashMap<>();   // what the chart shows (or will after drain)
+    private final Map<Long, SliceChange> pending = new LinkedHashMap<>();
+    private double total;
+
+    static String label(Habit h) {
+        return h.getName() + " (" + h.getStreak() + ")";
+    }
+
+    // Adds the habit's slice or updates it to the habit's current streak
+    void put(Habit h) {
+        Double old = values.put(h.getId(), (double) h.getStreak());
+        total += h.getStreak() - (old == null ? 0 : old);
+        SliceChange c = pending.get(h.getId());
+        if (c == null) {
+            c = new SliceChange(h.getId(), old == null ? Kind.ADDED : Kind.UPDATED);
+            pending.put(h.getId(), c);
+        } else if (c.kind == Kind.REMOVED) {
+            c.kind = Kind.UPDATED;   // removed and re-added before the chart saw either
+        }
+        c.label = label(h);
+        c.value = h.getStreak();
+    }
+
+    void remove(Habit h) {
+        Double old = values.remove(h.getId());
+        if (old == null) return;
+        total -= old;
+        SliceChange c = pending.get(h.getId());
+        if (c != null && c.kind == Kind.ADDED) {
+            pending.remove(h.getId());   // the chart never saw it
+        } else if (c != null) {
+            c.kind = Kind.REMOVED;
+        } else {
+            pending.put(h.getId(), new SliceChange(h.getId(), Kind.REMOVED));
+        }
+    }
+
+    boolean hasChanges() {
+        return !pending.isEmpty();
+    }
+
+    // Hands every net change since the last drain to the renderer; returns how many there were
+    int drain(Renderer renderer) {
+        if (pending.isEmpty()) return 0;
+        List<SliceChange> changes = new ArrayList<>(pending.values());
+        pending.clear();
+        renderer.apply(changes);
+        return changes.size();
+    }
+
+    int sliceCount() { return values.size(); }
+
+    // Sum of all streaks, i.e. the whole pie
+    double total() { return total; }
+
+    // Share of the pie for one habit, 0 if unknown or the pie is empty
+    double share(long habitId) {
+        Double v = values.get(habitId);
+        return v == null || total == 0 ? 0 : v / total;
+    }
+}
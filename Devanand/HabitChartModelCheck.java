@@ -0,0 +1,112 @@
+package com.example.habits;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+// Headless checks for HabitChartModel, using a plain map as the "chart":
+//  1. coalescing rules (add+update, add+remove, remove+re-add)
+//  2. a random edit stream drained every few edits always leaves the chart equal to the model
+//  3. cost of one frame after a burst of edits across thousands of habits
+//
+// Usage: java HabitChartModelCheck [habits]
+public class HabitChartModelCheck {
+
+    public static void main(String[] args) {
+        int count = args.length > 0 ? Integer.parseInt(args[0]) : 10_000;
+        Map<Long, Double> chart = new HashMap<>();
+        HabitChartModel.Renderer render = changes -> {
+            for (HabitChartModel.SliceChange c : changes) {
+                switch (c.kind) {
+                    case ADDED -> { if (chart.put(c.id, c.value) != null) throw new AssertionError("added twice"); }
+                    case UPDATED -> { if (chart.put(c.id, c.value) == null) throw new AssertionError("update of missing slice"); }
+                    case REMOVED -> { if (chart.remove(c.id) == null) throw new AssertionError("remove of missing slice"); }
+                }
+            }
+        };
+
+        // 1. coalescing
+        HabitChartModel model = new HabitChartModel();
+        Habit a = habit(1, "Run", 0), b = habit(2, "Read", 3);
+        model.put(a);
+        a.setStreak(1);
+        model.put(a);
+        model.put(b);
+        model.remove(b);
+        check("add+update and add+remove coalesce to one change", model.drain(render) == 1 && chart.get(1L) == 1.0);
+        model.remove(a);
+        model.put(a);
+        check("remove+re-add is one update", model.drain(render) == 1 && chart.size() == 1);
+
+        // 2. random stream
+        model = new HabitChartModel();
+        chart.clear();
+        Random rnd = new Random(1);
+        List<Habit> live = new ArrayList<>();
+        long nextId = 1;
+        boolean consistent = true;
+        for (int i = 0; i < 200_000; i++) {
+            int dice = rnd.nextInt(10);
+            if (live.isEmpty() || dice < 2) {
+                Habit h = habit(nextId++, "H", 0);
+                live.add(h);
+                model.put(h);
+            } else if (dice < 3) {
+                model.remove(live.remove(rnd.nextInt(live.size())));
+            } else {
+                Habit h = live.get(rnd.nextInt(live.size()));
+                h.setStreak(h.getStreak() + 1);
+                model.put(h);
+            }
+            if (rnd.nextInt(20) == 0) {
+                model.drain(render);
+                consistent &= chart.size() == live.size();
+            }
+        }
+        model.drain(render);
+        double sum = 0;
+        for (Habit h : live) {
+            consistent &= chart.get(h.getId()) == h.getStreak();
+            sum += h.getStreak();
+        }
+        check("chart matches model after 200k random edits (" + live.size() + " habits)",
+                consistent && chart.size() == live.size() && model.total() == sum);
+
+        // 3. frame cost
+        model = new HabitChartModel();
+        chart.clear();
+        Habit[] habits = new Habit[count];
+        for (int i = 0; i < count; i++) {
+            habits[i] = habit(i + 1, "Habit " + i, i % 30);
+            model.put(habits[i]);
+        }
+        long t0 = System.nanoTime();
+        int changes = model.drain(render);
+        double loadMs = (System.nanoTime() - t0) / 1e6;
+        int edits = 100_000;
+        t0 = System.nanoTime();
+        for (int i = 0; i < edits; i++) {
+            Habit h = habits[rnd.nextInt(count)];
+            h.setStreak(h.getStreak() + 1);
+            model.put(h);
+        }
+        double editNs = (System.nanoTime() - t0) / (double) edits;
+        t0 = System.nanoTime();
+        int slices = model.drain(render);
+        double frameMs = (System.nanoTime() - t0) / 1e6;
+        System.out.printf("%,d habits: initial frame %,d slices in %.1f ms | %,d edits at %.0f ns each -> one frame of %,d slice updates in %.1f ms%n",
+                count, changes, loadMs, edits, editNs, slices, frameMs);
+    }
+
+    static Habit habit(long id, String name, int streak) {
+        Habit h = new Habit(name, "Daily", streak, null);
+        h.setId(id);
+        return h;
+    }
+
+    static void check(String what, boolean ok) {
+        System.out.println((ok ? "OK   " : "FAIL ") + what);
+    }
+}
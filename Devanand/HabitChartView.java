@@ -0,0 +1,68 @@
+package com.example.habits;
+
+import javafx.animation.AnimationTimer;
+import javafx.geometry.Insets;
+import javafx.scene.chart.PieChart;
+import javafx.scene.control.Label;
+import javafx.scene.layout.VBox;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// The habit pie chart. One PieChart and one PieChart.Data per habit live for the whole session;
+// once per pulse the pending HabitChartModel changes are applied to just the affected slices,
+// with additions and removals each done as one bulk list change.
+class HabitChartView {
+    // Slice animations cost a timeline per slice; past this many they are switched off
+    private static final int ANIMATION_LIMIT = 50;
+
+    private final HabitChartModel model;
+    private final PieChart chart = new PieChart();
+    private final Map<Long, PieChart.Data> slices = new HashMap<>();
+    private final VBox node;
+    private final AnimationTimer pulse = new AnimationTimer() {
+        @Override
+        public void handle(long now) {
+            if (model.hasChanges()) model.drain(HabitChartView.this::apply);
+        }
+    };
+
+    HabitChartView(HabitChartModel model) {
+        this.model = model;
+        node = new VBox(new Label("Habit Completion Chart"), chart);
+        node.setPadding(new Insets(10));
+        pulse.start();
+    }
+
+    VBox node() {
+        return node;
+    }
+
+    void dispose() {
+        pulse.stop();
+    }
+
+    private void apply(List<HabitChartModel.SliceChange> changes) {
+        List<PieChart.Data> added = new ArrayList<>();
+        List<PieChart.Data> removed = new ArrayList<>();
+        for (HabitChartModel.SliceChange c : changes) {
+            switch (c.kind) {
+                case ADDED -> {
+                    PieChart.Data slice = new PieChart.Data(c.label, c.value);
+                    slices.put(c.id, slice);
+                    added.add(slice);
+                }
+                case UPDATED -> {
+                    PieChart.Data slice = slices.get(c.id);
+                    slice.setName(c.label);
+                    slice.setPieValue(c.value);
+                }
+                case REMOVED -> removed.add(slices.remove(c.id));
+            }
+        }
+        chart.setAnimated(slices.size() <= ANIMATION_LIMIT);
+        if (!removed.isEmpty()) chart.getData().removeAll(removed);
+        if (!added.isEmpty()) chart.getData().addAll(added);
+    }
+}
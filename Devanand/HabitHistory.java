@@ -0,0 +1,141 @@
+package com.example.habits;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.util.Arrays;
+
+// Completion log of one habit: bit i of 'days' is set if the habit was done on day base + i
+// (days as LocalDate.toEpochDay()). Marking a day is O(1), a year of history is six longs, and
+// counts over any range are popcounts over whole words, which is what makes weekly and monthly
+// roll-ups across thousands of habits cheap. Serialized by Gson as {"base":n,"days":[...]}.
+class HabitHistory {
+    private long base;
+    private long[] days;
+
+    HabitHistory(LocalDate firstDay) {
+        base = firstDay.toEpochDay();
+        days = new long[1];
+    }
+
+    HabitHistory copy() {
+        HabitHistory h = new HabitHistory(LocalDate.ofEpochDay(base));
+        h.days = days.clone();
+        return h;
+    }
+
+    // Sets the day's bit; false if it was already set
+    boolean mark(LocalDate date) {
+        long day = date.toEpochDay();
+        if (day < base) rebase(day);
+        long i = day - base;
+        int word = (int) (i >>> 6);
+        if (word >= days.length) days = Arrays.copyOf(days, Math.max(word + 1, days.length * 2));
+        long bit = 1L << i;
+        if ((days[word] & bit) != 0) return false;
+        days[word] |= bit;
+        return true;
+    }
+
+    boolean isDone(LocalDate date) {
+        return isDone(date.toEpochDay());
+    }
+
+    // Completions from 'from' to 'to', both inclusive
+    int count(LocalDate from, LocalDate to) {
+        return count(from.toEpochDay(), to.toEpochDay());
+    }
+
+    // Daily: consecutive done days ending today, or ending yesterday if today is not done yet.
+    // Weekly: consecutive Monday-to-Sunday weeks with at least one completion, ending this week
+    // or, if this week has none yet, last week.
+    int streak(String frequency, LocalDate today) {
+        return "Weekly".equalsIgnoreCase(frequency) ? weeklyStreak(today) : dailyStreak(today.toEpochDay());
+    }
+
+    // Completions per calendar month of 'year' (index 0 = January)
+    int[] monthlyCounts(int year) {
+        long[] starts = monthStarts(year);
+        int[] out = new int[12];
+        for (int m = 0; m < 12; m++) out[m] = count(starts[m], starts[m + 1] - 1);
+        return out;
+    }
+
+    // Epoch days of the 1st of each month of 'year', plus January 1st of the next year
+    static long[] monthStarts(int year) {
+        long[] starts = new long[13];
+        for (int m = 0; m < 13; m++) starts[m] = LocalDate.of(year, 1, 1).plusMonths(m).toEpochDay();
+        return starts;
+    }
+
+    // Completions per week for 'weeks' weeks starting with the week containing 'from'
+    int[] weeklyCounts(LocalDate from, int weeks) {
+        int[] out = new int[weeks];
+        long monday = from.with(DayOfWeek.MONDAY).toEpochDay();
+        for (int w = 0; w < weeks; w++, monday += 7) out[w] = count(monday, monday + 6);
+        return out;
+    }
+
+    // --- Bits ---
+
+    private boolean isDone(long day) {
+        long i = day - base;
+        if (i < 0 || (i >>> 6) >= days.length) return false;
+        return (days[(int) (i >>> 6)] & (1L << i)) != 0;
+    }
+
+    // Same as count(LocalDate, LocalDate) on epoch days, for callers that precompute ranges
+    int count(long fromDay, long toDay) {
+        long from = Math.max(fromDay - base, 0);
+        long to = Math.min(toDay - base, (long) days.length * 64 - 1);
+        if (from > to) return 0;
+        int first = (int) (from >>> 6), last = (int) (to >>> 6);
+        long firstMask = -1L << from;           // shifts use the low 6 bits
+        long lastMask = -1L >>> (63 - (to & 63));
+        if (first == last) return Long.bitCount(days[first] & firstMask & lastMask);
+        int n = Long.bitCount(days[first] & firstMask) + Long.bitCount(days[last] & lastMask);
+        for (int w = first + 1; w < last; w++) n += Long.bitCount(days[w]);
+        return n;
+    }
+
+    // Counts set bits going backwards from 'today' a word at a time
+    private int dailyStreak(long today) {
+        long end = isDone(today) ? today : today - 1;
+        long i = end - base;
+        if (i < 0 || (i >>> 6) >= days.length) return 0;
+        int streak = 0;
+        int word = (int) (i >>> 6);
+        // bits at and below i in the first word, shifted up so bit i is the top bit
+        long bits = days[word] << (63 - (i & 63));
+        int run = Long.numberOfLeadingZeros(~bits);
+        if (run <= (i & 63)) return run;
+        streak += (int) (i & 63) + 1;
+        for (word--; word >= 0; word--) {
+            if (days[word] == -1L) {
+                streak += 64;
+                continue;
+            }
+            return streak + Long.numberOfLeadingZeros(~days[word]);
+        }
+        return streak;
+    }
+
+    private int weeklyStreak(LocalDate today) {
+        long monday = today.with(DayOfWeek.MONDAY).toEpochDay();
+        if (count(monday, monday + 6) == 0) monday -= 7;
+        int streak = 0;
+        while (monday + 6 >= base && count(monday, monday + 6) > 0) {
+            streak++;
+            monday -= 7;
+        }
+        return streak;
+    }
+
+    // Moves the base back to cover 'day', in whole words so existing bits only change index
+    private void rebase(long day) {
+        int shift = (int) ((base - day + 63) >>> 6);
+        long[] grown = new long[days.length + shift];
+        System.arraycopy(days, 0, grown, shift, days.length);
+        days = grown;
+        base -= shift * 64L;
+    }
+}
@@ -0,0 +1,119 @@
+package com.example.habits;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.util.*;
+
+// Synthetic multi-year completion history for thousands of habits, checked against a plain
+// TreeSet<LocalDate> per habit and timed for: marking, streaks, monthly and weekly roll-ups.
+//
+// Usage: java HabitHistoryBenchmark [habits] [years]
+public class HabitHistoryBenchmark {
+
+    public static void main(String[] args) {
+        int count = args.length > 0 ? Integer.parseInt(args[0]) : 5_000;
+        int years = args.length > 1 ? Integer.parseInt(args[1]) : 5;
+        LocalDate today = LocalDate.of(2025, 6, 15);
+        LocalDate start = today.minusYears(years);
+        Random rnd = new Random(3);
+
+        List<Habit> habits = new ArrayList<>(count);
+        List<TreeSet<LocalDate>> naive = new ArrayList<>(count);
+        long marks = 0;
+        long t0 = System.nanoTime();
+        for (int i = 0; i < count; i++) {
+            Habit h = new Habit("Habit " + i, i % 3 == 0 ? "Weekly" : "Daily", 0, null);
+            TreeSet<LocalDate> set = new TreeSet<>();
+            // each habit has its own hit rate; long unbroken runs near the end make streaks non-trivial
+            double p = 0.5 + rnd.nextDouble() * 0.5;
+            for (LocalDate d = start; !d.isAfter(today); d = d.plusDays(1)) {
+                boolean done = d.isAfter(today.minusDays(i % 200)) || rnd.nextDouble() < p;
+                if (h.getFrequency().equals("Weekly")) done &= d.getDayOfWeek() == DayOfWeek.SATURDAY;
+                if (done) {
+                    h.markDone(d);
+                    set.add(d);
+                    marks++;
+                }
+            }
+            // a second "Done" on a day must be refused
+            LocalDate yesterday = today.minusDays(1);
+            boolean fresh = h.markDone(yesterday);
+            if (fresh == set.contains(yesterday)) throw new AssertionError("markDone accepted a day twice or refused a new one");
+            if (fresh) set.add(yesterday);
+            habits.add(h);
+            naive.add(set);
+        }
+        System.out.printf("%,d habits x %d years: %,d completions marked in %d ms (incl. generation)%n",
+                count, years, marks, (System.nanoTime() - t0) / 1_000_000);
+
+        // --- correctness against the naive sets ---
+        int checked = 0;
+        for (int i = 0; i < count; i += 7) {
+            Habit h = habits.get(i);
+            if (h.getHistory().streak(h.getFrequency(), today) != naiveStreak(naive.get(i), h.getFrequency(), today)) {
+                throw new AssertionError("streak mismatch for habit " + i);
+            }
+            int[] months = h.getHistory().monthlyCounts(2024);
+            for (int m = 0; m < 12; m++) {
+                LocalDate first = LocalDate.of(2024, m + 1, 1);
+                if (months[m] != naive.get(i).subSet(first, true, first.plusMonths(1), false).size()) {
+                    throw new AssertionError("month mismatch for habit " + i);
+                }
+            }
+            checked++;
+        }
+        System.out.println("Streaks and monthly counts match TreeSet<LocalDate> for " + checked + " habits");
+
+        // --- timings ---
+        int rounds = 20;
+        long sink = 0;
+        t0 = System.nanoTime();
+        for (int r = 0; r < rounds; r++) sink += HabitAnalytics.onStreak(habits, today, 7);
+        double streakMs = (System.nanoTime() - t0) / 1e6 / rounds;
+        t0 = System.nanoTime();
+        for (int r = 0; r < rounds; r++) {
+            for (int y = today.getYear() - years; y <= today.getYear(); y++) sink += HabitAnalytics.monthlyTotals(habits, y)[0];
+        }
+        double monthlyMs = (System.nanoTime() - t0) / 1e6 / rounds;
+        t0 = System.nanoTime();
+        for (int r = 0; r < rounds; r++) sink += HabitAnalytics.weeklyTotals(habits, start, years * 52)[0];
+        double weeklyMs = (System.nanoTime() - t0) / 1e6 / rounds;
+
+        t0 = System.nanoTime();
+        for (int y = today.getYear() - years; y <= today.getYear(); y++) {
+            for (TreeSet<LocalDate> set : naive) {
+                for (int m = 1; m <= 12; m++) {
+                    LocalDate first = LocalDate.of(y, m, 1);
+                    sink += set.subSet(first, true, first.plusMonths(1), false).size();
+                }
+            }
+        }
+        double naiveMonthlyMs = (System.nanoTime() - t0) / 1e6;
+
+        System.out.printf("Streaks for all habits:            %7.2f ms%n", streakMs);
+        System.out.printf("Monthly roll-up, all %d years:      %7.2f ms  (TreeSet: %.1f ms)%n", years + 1, monthlyMs, naiveMonthlyMs);
+        System.out.printf("Weekly roll-up, %d weeks:          %7.2f ms%n", years * 52, weeklyMs);
+        System.out.printf("History size: ~%d bytes per habit vs ~%d for the TreeSet%n",
+                (years * 366 / 64 + 1) * 8, marks / count * 40 + 48);
+        System.out.println("(checksum " + sink + ")");
+    }
+
+    static int naiveStreak(TreeSet<LocalDate> done, String frequency, LocalDate today) {
+        int streak = 0;
+        if (frequency.equals("Weekly")) {
+            LocalDate monday = today.with(DayOfWeek.MONDAY);
+            if (done.subSet(monday, true, monday.plusDays(7), false).isEmpty()) monday = monday.minusWeeks(1);
+            while (!done.subSet(monday, true, monday.plusDays(7), false).isEmpty()) {
+                streak++;
+                monday = monday.minusWeeks(1);
+            }
+            return streak;
+        }
+        LocalDate d = done.contains(today) ? today : today.minusDays(1);
+        while (done.contains(d)) {
+            streak++;
+            d = d.minusDays(1);
+        }
+        return streak;
+    }
+}
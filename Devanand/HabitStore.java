@@ -0,0 +1,259 @@
+package com.example.habits;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonParseException;
+import com.google.gson.TypeAdapter;
+import com.google.gson.reflect.TypeToken;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+import java.lang.reflect.Type;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.time.LocalDate;
+import java.util.*;
+import java.util.concurrent.*;
+
+// Background persistence for habits, independent of JavaFX.
+//
+//   habits.json  snapshot: JSON array of every habit (the format the app always used)
+//   habits.log   one JSON line per change since the snapshot: {"op":"put","habit":{...}} or
+//                {"op":"delete","id":n}
+//
+// markChanged()/markDeleted() only copy the habit into a pending map and return, so the FX
+// thread never touches the disk. The first change schedules a flush DEBOUNCE_MS later on the
+// store's writer thread; changes made meanwhile are coalesced, so ten clicks on one habit become
+// one log line. A flush appends the changed habits to the log and fsyncs it. Once the log holds
+// more records than there are habits it is folded into a new snapshot, written to a temp file
+// and renamed over habits.json, so a crash leaves either the old or the new snapshot, never half
+// of one. Replaying the log over either is harmless because puts and deletes are by id.
+class HabitStore implements Closeable {
+    static final Gson GSON = new GsonBuilder().registerTypeAdapter(LocalDate.class, new LocalDateAdapter()).create();
+
+    private static final long DEBOUNCE_MS = 300;
+    private static final int MIN_COMPACT_RECORDS = 1_000;
+    private static final Type HABIT_LIST = new TypeToken<ArrayList<Habit>>(){}.getType();
+
+    private static final class LogEntry {
+        String op;
+        long id;
+        Habit habit;
+    }
+
+    private final Path snapshotFile;
+    private final Path tempFile;
+    private final FileChannel log;
+    private final ScheduledExecutorService writer;
+
+    // Shared with callers, guarded by 'this'
+    private Map<Long, Habit> pending = new LinkedHashMap<>();   // id -> copy, null = deleted
+    private boolean flushScheduled;
+    private long nextId;
+
+    // Writer thread only (and open/close)
+    private final Map<Long, Habit> saved = new LinkedHashMap<>();
+    private int logRecords;
+
+    private HabitStore(Path dir) throws IOException {
+        Files.createDirectories(dir);
+        snapshotFile = dir.resolve("habits.json");
+        tempFile = dir.resolve("habits.json.tmp");
+        log = FileChannel.open(dir.resolve("habits.log"), StandardOpenOption.CREATE,
+                StandardOpenOption.READ, StandardOpenOption.WRITE);
+        writer = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "habit-store");
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    // Loads the snapshot and replays the log
+    static HabitStore open(Path dir) throws IOException {
+        HabitStore store = new HabitStore(dir);
+        boolean missingIds = store.readSnapshot();
+        store.replayLog();
+        for (long id : store.saved.keySet()) store.nextId = Math.max(store.nextId, id);
+        if (missingIds) {
+            // files written before habits had ids: number them and save that right away
+            for (Habit h : store.saved.values()) if (h.getId() == 0) h.setId(++store.nextId);
+            Map<Long, Habit> renumbered = new LinkedHashMap<>();
+            for (Habit h : store.saved.values()) renumbered.put(h.getId(), h);
+            store.saved.clear();
+            store.saved.putAll(renumbered);
+            store.compact();
+        }
+        return store;
+    }
+
+    // Copies of the stored habits, in the order they were first saved
+    List<Habit> habits() {
+        List<Habit> out = new ArrayList<>(saved.size());
+        for (Habit h : saved.values()) out.add(new Habit(h));
+        return out;
+    }
+
+    // Records the habit's current state (assigning it an id if it is new) for the next flush
+    synchronized void markChanged(Habit h) {
+        if (h.getId() == 0) h.setId(++nextId);
+        pending.put(h.getId(), new Habit(h));
+        scheduleFlush();
+    }
+
+    synchronized void markDeleted(Habit h) {
+        if (h.getId() == 0) return;   // never saved
+        pending.put(h.getId(), null);
+        scheduleFlush();
+    }
+
+    // Writes everything pending now and waits for it
+    void flush() {
+        try {
+            writer.submit(this::flushPending).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            e.getCause().printStackTrace();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        flush();
+        writer.shutdown();
+        log.close();
+    }
+
+    private void scheduleFlush() {
+        if (flushScheduled) return;
+        flushScheduled = true;
+        writer.schedule(this::flushPending, DEBOUNCE_MS, TimeUnit.MILLISECONDS);
+    }
+
+    // --- Writer thread ---
+
+    private void flushPending() {
+        Map<Long, Habit> batch;
+        synchronized (this) {
+            batch = pending;
+            pending = new LinkedHashMap<>();
+            flushScheduled = false;
+        }
+        if (batch.isEmpty()) return;
+        try {
+            StringBuilder lines = new StringBuilder();
+            for (Map.Entry<Long, Habit> e : batch.entrySet()) {
+                LogEntry entry = new LogEntry();
+                entry.id = e.getKey();
+                entry.habit = e.getValue();
+                entry.op = entry.habit == null ? "delete" : "put";
+                lines.append(GSON.toJson(entry)).append('\n');
+                if (entry.habit == null) saved.remove(entry.id); else saved.put(entry.id, entry.habit);
+            }
+            ByteBuffer bytes = ByteBuffer.wrap(lines.toString().getBytes(StandardCharsets.UTF_8));
+            while (bytes.hasRemaining()) log.write(bytes, log.size());
+            log.force(false);
+            logRecords += batch.size();
+            if (logRecords >= Math.max(MIN_COMPACT_RECORDS, saved.size())) compact();
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    // Folds the log into a new snapshot: temp file, fsync, atomic rename, then empty the log
+    private void compact() throws IOException {
+        try (FileChannel out = FileChannel.open(tempFile, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer json = ByteBuffer.wrap(GSON.toJson(new ArrayList<>(saved.values())).getBytes(StandardCharsets.UTF_8));
+            while (json.hasRemaining()) out.write(json);
+            out.force(true);
+        }
+        Files.move(tempFile, snapshotFile, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        log.truncate(0);
+        log.force(true);
+        logRecords = 0;
+    }
+
+    // --- Loading ---
+
+    // Returns true if some habit has no id yet
+    private boolean readSnapshot() throws IOException {
+        if (!Files.exists(snapshotFile)) return false;
+        List<Habit> list;
+        try (Reader reader = Files.newBufferedReader(snapshotFile, StandardCharsets.UTF_8)) {
+            list = GSON.fromJson(reader, HABIT_LIST);
+        }
+        if (list == null) return false;
+        boolean missingIds = false;
+        long unnumbered = 0;
+        for (Habit h : list) {
+            if (h.getId() == 0) {
+                missingIds = true;
+                saved.put(--unnumbered, h);   // temporary keys until open() numbers them
+            } else {
+                saved.put(h.getId(), h);
+            }
+        }
+        return missingIds;
+    }
+
+    // Applies every complete log line; a torn last line from a crash is cut off
+    private void replayLog() throws IOException {
+        ByteBuffer buf = ByteBuffer.allocate((int) log.size());
+        while (buf.hasRemaining()) {
+            if (log.read(buf, buf.position()) < 0) break;
+        }
+        byte[] bytes = buf.array();
+        int start = 0;
+        for (int i = 0; i < bytes.length; i++) {
+            if (bytes[i] != '\n') continue;
+            LogEntry entry;
+            try {
+                entry = GSON.fromJson(new String(bytes, start, i - start, StandardCharsets.UTF_8), LogEntry.class);
+            } catch (JsonParseException e) {
+                break;
+            }
+            if ("delete".equals(entry.op)) saved.remove(entry.id);
+            else saved.put(entry.id, entry.habit);
+            logRecords++;
+            start = i + 1;
+        }
+        if (start < bytes.length) log.truncate(start);
+    }
+
+    // ISO dates ("2024-05-01"). Also reads the {"year":..,"month":..,"day":..} objects that plain
+    // reflective Gson wrote for LocalDate on older JDKs.
+    static final class LocalDateAdapter extends TypeAdapter<LocalDate> {
+        @Override
+        public void write(JsonWriter out, LocalDate date) throws IOException {
+            if (date == null) out.nullValue(); else out.value(date.toString());
+        }
+
+        @Override
+        public LocalDate read(JsonReader in) throws IOException {
+            JsonToken token = in.peek();
+            if (token == JsonToken.NULL) {
+                in.nextNull();
+                return null;
+            }
+            if (token == JsonToken.STRING) return LocalDate.parse(in.nextString());
+            int year = 0, month = 1, day = 1;
+            in.beginObject();
+            while (in.hasNext()) {
+                switch (in.nextName()) {
+                    case "year" -> year = in.nextInt();
+                    case "month" -> month = in.nextInt();
+                    case "day" -> day = in.nextInt();
+                    default -> in.skipValue();
+                }
+            }
+            in.endObject();
+            return LocalDate.of(year, month, day);
+        }
+    }
+}
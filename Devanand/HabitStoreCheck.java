@@ -0,0 +1,95 @@
+package com.example.habits;
+
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.List;
+
+// Headless checks for HabitStore (no JavaFX needed):
+//  1. a burst of edits is coalesced into one log line per habit
+//  2. reopening restores exactly what was saved, deletes included
+//  3. a torn last log line from a crash is ignored
+//  4. a legacy habits.json (no ids, reflective LocalDate objects) loads and gets numbered
+//  5. a large history stays off the caller's thread: markChanged cost vs a full rewrite
+//
+// Usage: java HabitStoreCheck [habits]
+public class HabitStoreCheck {
+
+    public static void main(String[] args) throws Exception {
+        int count = args.length > 0 ? Integer.parseInt(args[0]) : 20_000;
+        Path dir = Files.createTempDirectory("habit-store");
+        Path log = dir.resolve("habits.log");
+
+        // 1. coalescing
+        HabitStore store = HabitStore.open(dir);
+        Habit run = new Habit("Run", "Daily", 0, null);
+        Habit read = new Habit("Read", "Weekly", 0, null);
+        Habit gone = new Habit("Smoke less", "Daily", 0, null);
+        for (int i = 0; i < 50; i++) {
+            run.markDone(LocalDate.of(2024, 1, 1).plusDays(i));
+            store.markChanged(run);
+        }
+        store.markChanged(read);
+        store.markChanged(gone);
+        store.markDeleted(gone);
+        store.flush();
+        long lines = Files.readAllLines(log).size();
+        check("50 edits + add + add/delete coalesced into 3 log lines", lines == 3);
+
+        // 2. reopen
+        store.close();
+        store = HabitStore.open(dir);
+        List<Habit> loaded = store.habits();
+        check("reopen restores 2 habits", loaded.size() == 2);
+        check("latest streak and date survive", loaded.get(0).getStreak() == 50
+                && LocalDate.of(2024, 2, 19).equals(loaded.get(0).getLastDone()));
+        check("completion log survives", loaded.get(0).getHistory().count(LocalDate.of(2024, 1, 1), LocalDate.of(2024, 12, 31)) == 50);
+
+        // 3. torn tail
+        store.close();
+        Files.write(log, "{\"op\":\"put\",\"id\":9,\"habit\":{\"na".getBytes(StandardCharsets.UTF_8), StandardOpenOption.APPEND);
+        store = HabitStore.open(dir);
+        check("torn log line ignored", store.habits().size() == 2);
+        store.close();
+
+        // 4. legacy file
+        Path legacy = Files.createTempDirectory("habit-legacy");
+        Files.writeString(legacy.resolve("habits.json"),
+                "[{\"name\":\"Yoga\",\"frequency\":\"Daily\",\"streak\":4,\"lastDone\":{\"year\":2023,\"month\":5,\"day\":7}},"
+                        + "{\"name\":\"Piano\",\"frequency\":\"Weekly\",\"streak\":0,\"lastDone\":null}]");
+        store = HabitStore.open(legacy);
+        List<Habit> old = store.habits();
+        check("legacy habits get ids 1 and 2", old.size() == 2 && old.get(0).getId() == 1 && old.get(1).getId() == 2);
+        check("legacy date read", LocalDate.of(2023, 5, 7).equals(old.get(0).getLastDone()));
+        store.close();
+        check("legacy file rewritten with ISO dates", Files.readString(legacy.resolve("habits.json")).contains("2023-05-07"));
+
+        // 5. caller-side cost with a large list
+        Path big = Files.createTempDirectory("habit-big");
+        store = HabitStore.open(big);
+        Habit[] habits = new Habit[count];
+        for (int i = 0; i < count; i++) {
+            habits[i] = new Habit("Habit " + i, i % 2 == 0 ? "Daily" : "Weekly", i % 30, LocalDate.of(2024, 1, 1));
+            store.markChanged(habits[i]);
+        }
+        store.flush();
+        long t0 = System.nanoTime();
+        int clicks = 1_000;
+        for (int i = 0; i < clicks; i++) store.markChanged(habits[i % count]);
+        double clickUs = (System.nanoTime() - t0) / 1e3 / clicks;
+        t0 = System.nanoTime();
+        try (Writer w = Files.newBufferedWriter(dir.resolve("full.json"))) {
+            HabitStore.GSON.toJson(store.habits(), w);
+        }
+        double fullMs = (System.nanoTime() - t0) / 1e6;
+        store.close();
+        System.out.printf("%,d habits: markChanged %.1f us on the caller | one full rewrite %.1f ms%n", count, clickUs, fullMs);
+    }
+
+    static void check(String what, boolean ok) {
+        System.out.println((ok ? "OK   " : "FAIL ") + what);
+    }
+}
@@ -1,8 +1,9 @@
+package com.example.habits;
+
 import javafx.application.Application;
 import javafx.collections.*;
 import javafx.geometry.*;
 import javafx.scene.Scene;
-import javafx.scene.chart.*;
 import javafx.scene.control.*;
 import javafx.scene.control.cell.PropertyValueFactory;
 import javafx.scene.layout.*;
@@ -10,10 +11,8 @@ import javafx.scene.paint.Color;
 import javafx.scene.text.Font;
 import javafx.stage.Stage;
 import javafx.util.Callback;
-import com.google.gson.Gson;
-import com.google.gson.reflect.TypeToken;
 import java.io.*;
-import java.lang.reflect.Type;
+import java.nio.file.Paths;
 import java.time.LocalDate;
 import java.util.*;
 
@@ -23,8 +22,12 @@ public class HabitTrackerApp extends Application {
     private ObservableList<Habit> habitList = FXCollections.observableArrayList();
     private TableView<Habit> table = new TableView<>();
 
-    // JSON storage file
-    private final String DATA_FILE = "habits.json";
+    // JSON storage (habits.json + habits.log in the working directory), written off the FX thread
+    private HabitStore store;
+
+    // Pie chart, updated slice by slice once per pulse
+    private final HabitChartModel chartModel = new HabitChartModel();
+    private HabitChartView chartView;
 
     public static void main(String[] args) {
         launch(args);
@@ -83,8 +86,8 @@ public class HabitTrackerApp extends Application {
                 Habit h = new Habit(name, freq, 0, null);
                 habitList.add(h);
                 nameInput.clear();
-                saveHabits();
-                renderChart(root);
+                store.markChanged(h);
+                chartModel.put(h);
             }
         });
 
@@ -94,7 +97,9 @@ public class HabitTrackerApp extends Application {
         VBox leftPanel = new VBox(10, table, form);
         root.setLeft(leftPanel);
 
-        renderChart(root);
+        for (Habit h : habitList) chartModel.put(h);
+        chartView = new HabitChartView(chartModel);
+        root.setCenter(chartView.node());
 
         Scene scene = new Scene(root, 900, 500);
         primaryStage.setScene(scene);
@@ -112,16 +117,16 @@ public class HabitTrackerApp extends Application {
                     {
                         doneBtn.setOnAction(e -> {
                             Habit h = getTableView().getItems().get(getIndex());
-                            h.setLastDone(LocalDate.now());
-                            h.setStreak(h.getStreak() + 1);
+                            if (!h.markDone(LocalDate.now())) return;   // already done today
                             table.refresh();
-                            saveHabits();
+                            store.markChanged(h);
+                            chartModel.put(h);
                         });
                         delBtn.setOnAction(e -> {
                             Habit h = getTableView().getItems().get(getIndex());
                             habitList.remove(h);
-                            saveHabits();
-                            renderChart((BorderPane) getScene().getRoot());
+                            store.markDeleted(h);
+                            chartModel.remove(h);
                         });
                     }
                     HBox pane = new HBox(5, doneBtn, delBtn);
@@ -139,56 +144,25 @@ public class HabitTrackerApp extends Application {
         };
     }
 
-    // --- Render Pie Chart ---
-    private void renderChart(BorderPane root) {
-        PieChart pieChart = new PieChart();
-        Map<String, Long> freqMap = new HashMap<>();
-        for (Habit h : habitList) {
-            freqMap.put(h.getName(), (long) h.getStreak());
-        }
-        freqMap.forEach((k, v) -> {
-            PieChart.Data slice = new PieChart.Data(k + " (" + v + ")", v);
-            pieChart.getData().add(slice);
-        });
-        VBox chartPanel = new VBox(new Label("Habit Completion Chart"), pieChart);
-        chartPanel.setPadding(new Insets(10));
-        root.setCenter(chartPanel);
-    }
-
-    // --- JSON Persistence ---
-    private void saveHabits() {
-        try (Writer writer = new FileWriter(DATA_FILE)) {
-            Gson gson = new Gson();
-            gson.toJson(new ArrayList<>(habitList), writer);
+    @Override
+    public void stop() {
+        if (chartView != null) chartView.dispose();
+        // write out anything still waiting for the debounce timer
+        try {
+            if (store != null) store.close();
         } catch (IOException e) { e.printStackTrace(); }
     }
 
+    // --- JSON Persistence ---
     private void loadHabits() {
-        File f = new File(DATA_FILE);
-        if (!f.exists()) return;
-        try (Reader reader = new FileReader(DATA_FILE)) {
-            Gson gson = new Gson();
-            Type listType = new TypeToken<ArrayList<Habit>>(){}.getType();
-            List<Habit> list = gson.fromJson(reader, listType);
-            habitList.addAll(list);
-        } catch (IOException e) { e.printStackTrace(); }
-    }
-
-    // --- Habit Class ---
-    public static class Habit {
-        private String name;
-        private String frequency;
-        private int streak;
-        private LocalDate lastDone;
-
-        public Habit(String name, String frequency, int streak, LocalDate lastDone){
-            this.name=name; this.frequency=frequency; this.streak=streak; this.lastDone=lastDone;
+        try {
+            store = HabitStore.open(Paths.get("."));
+            List<Habit> habits = store.habits();
+            LocalDate today = LocalDate.now();
+            for (Habit h : habits) h.refreshStreak(today);
+            habitList.addAll(habits);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot load habits", e);
         }
-        public String getName(){return name;}
-        public String getFrequency(){return frequency;}
-        public int getStreak(){return streak;}
-        public LocalDate getLastDone(){return lastDone;}
-        public void setLastDone(LocalDate d){lastDone=d;}
-        public void setStreak(int s){streak=s;}
     }
 }
@@ -0,0 +1,134 @@
+package com.example.library;
+
+import java.util.Arrays;
+
+// Multiset of ints (value -> count) in one open-addressing table with linear probing.
+// add/remove/count are O(1) and nothing is boxed. Used for a user's loans, where the same
+// book can be borrowed more than once, and for the book -> borrowers reverse index.
+class IntMultiset {
+    private int[] keys;
+    private int[] counts;   // 0 marks a free slot
+    private int distinct;
+    private int total;
+
+    IntMultiset() {
+        this(4);
+    }
+
+    IntMultiset(int expectedDistinct) {
+        int capacity = 8;
+        while (capacity * 3 < expectedDistinct * 4) capacity *= 2;
+        keys = new int[capacity];
+        counts = new int[capacity];
+    }
+
+    int size() { return total; }
+
+    int distinctCount() { return distinct; }
+
+    boolean isEmpty() { return total == 0; }
+
+    int count(int value) {
+        return counts[indexOf(value)];
+    }
+
+    boolean contains(int value) {
+        return count(value) > 0;
+    }
+
+    void add(int value) {
+        int i = indexOf(value);
+        if (counts[i] == 0) {
+            if ((distinct + 1) * 4 > keys.length * 3) {
+                rehash(keys.length * 2);
+                i = indexOf(value);
+            }
+            keys[i] = value;
+            distinct++;
+        }
+        counts[i]++;
+        total++;
+    }
+
+    // Removes one occurrence; false if the value is not present
+    boolean remove(int value) {
+        int i = indexOf(value);
+        if (counts[i] == 0) return false;
+        total--;
+        if (--counts[i] == 0) {
+            distinct--;
+            closeGap(i);
+        }
+        return true;
+    }
+
+    // Every occurrence, in no particular order
+    int[] toArray() {
+        int[] out = new int[total];
+        int n = 0;
+        for (int i = 0; i < keys.length; i++) {
+            for (int c = 0; c < counts[i]; c++) out[n++] = keys[i];
+        }
+        return out;
+    }
+
+    // Each value once, in no particular order
+    int[] distinctValues() {
+        int[] out = new int[distinct];
+        int n = 0;
+        for (int i = 0; i < keys.length; i++) {
+            if (counts[i] > 0) out[n++] = keys[i];
+        }
+        return out;
+    }
+
+    @Override
+    public String toString() {
+        int[] values = toArray();
+        Arrays.sort(values);
+        return Arrays.toString(values);
+    }
+
+    // Slot holding 'value', or the free slot where it would go
+    private int indexOf(int value) {
+        int mask = keys.length - 1;
+        int i = hash(value) & mask;
+        while (counts[i] != 0 && keys[i] != value) i = (i + 1) & mask;
+        return i;
+    }
+
+    private static int hash(int value) {
+        int h = value * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    // Backward-shift deletion: pull later entries of the probe run into the freed slot so
+    // lookups never need tombstones
+    private void closeGap(int free) {
+        int mask = keys.length - 1;
+        int j = free;
+        while (true) {
+            j = (j + 1) & mask;
+            if (counts[j] == 0) return;
+            int home = hash(keys[j]) & mask;
+            boolean stays = free <= j ? (free < home && home <= j) : (free < home || home <= j);
+            if (stays) continue;
+            keys[free] = keys[j];
+            counts[free] = counts[j];
+            counts[j] = 0;
+            free = j;
+        }
+    }
+
+    private void rehash(int capacity) {
+        int[] oldKeys = keys, oldCounts = counts;
+        keys = new int[capacity];
+        counts = new int[capacity];
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldCounts[i] == 0) continue;
+            int j = indexOf(oldKeys[i]);
+            keys[j] = oldKeys[i];
+            counts[j] = oldCounts[i];
+        }
+    }
+}
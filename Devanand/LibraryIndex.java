@@ -0,0 +1,208 @@
+package com.example.library;
+
+import java.util.*;
+
+// Secondary indexes over the Library catalog, kept up to date on every add/borrow/return.
+//
+//   genre  -> ids        (case-insensitive)
+//   author -> ids        (case-insensitive)
+//   title token -> ids   (inverted index, tokens kept sorted for prefix search)
+//   ids with no copies left, so "available only" is a binary search rather than a lookup per book
+//
+// Posting lists are sorted int arrays. A query intersects them starting from the shortest one,
+// so its cost depends on the size of the smallest list, not on the size of the catalog.
+class LibraryIndex {
+
+    // Sorted, duplicate-free book ids
+    static final class PostingList {
+        private int[] ids = new int[4];
+        private int size;
+
+        int size() { return size; }
+
+        boolean contains(int id) {
+            return Arrays.binarySearch(ids, 0, size, id) >= 0;
+        }
+
+        void add(int id) {
+            // ids mostly arrive in increasing order, which makes this a plain append
+            if (size > 0 && ids[size - 1] >= id) {
+                int pos = Arrays.binarySearch(ids, 0, size, id);
+                if (pos >= 0) return;
+                insertAt(-pos - 1, id);
+                return;
+            }
+            insertAt(size, id);
+        }
+
+        void remove(int id) {
+            int pos = Arrays.binarySearch(ids, 0, size, id);
+            if (pos < 0) return;
+            System.arraycopy(ids, pos + 1, ids, pos, size - pos - 1);
+            size--;
+        }
+
+        static PostingList of(int[] sortedIds) {
+            PostingList p = new PostingList();
+            p.ids = sortedIds;
+            p.size = sortedIds.length;
+            return p;
+        }
+
+        private void insertAt(int pos, int id) {
+            if (size == ids.length) ids = Arrays.copyOf(ids, size * 2);
+            System.arraycopy(ids, pos, ids, pos + 1, size - pos);
+            ids[pos] = id;
+            size++;
+        }
+    }
+
+    private static final int[] NONE = new int[0];
+    private static final PostingList EMPTY = PostingList.of(NONE);
+
+    private final Map<String, PostingList> byGenre = new HashMap<>();
+    private final Map<String, PostingList> byAuthor = new HashMap<>();
+    private final TreeMap<String, PostingList> byTitleToken = new TreeMap<>();
+    private final PostingList unavailable = new PostingList();
+
+    // --- Maintenance ---
+
+    void add(Book b) {
+        int id = b.getId();
+        byGenre.computeIfAbsent(key(b.getGenre()), k -> new PostingList()).add(id);
+        byAuthor.computeIfAbsent(key(b.getAuthor()), k -> new PostingList()).add(id);
+        for (String token : tokenize(b.getTitle())) {
+            byTitleToken.computeIfAbsent(token, k -> new PostingList()).add(id);
+        }
+        updateAvailability(b);
+    }
+
+    void remove(Book b) {
+        int id = b.getId();
+        removeFrom(byGenre, key(b.getGenre()), id);
+        removeFrom(byAuthor, key(b.getAuthor()), id);
+        for (String token : tokenize(b.getTitle())) removeFrom(byTitleToken, token, id);
+        unavailable.remove(id);
+    }
+
+    // Call after a borrow or return changed the book's available copies
+    void updateAvailability(Book b) {
+        if (b.getAvailableCopies() > 0) unavailable.remove(b.getId());
+        else unavailable.add(b.getId());
+    }
+
+    // --- Queries ---
+
+    // Ids of books matching every given criterion, in id order; null/blank criteria are ignored.
+    // Every word of 'title' must appear in the title; the last word also matches as a prefix
+    // ("lord ri" finds "The Lord of the Rings").
+    int[] search(String genre, String author, String title, boolean availableOnly) {
+        List<PostingList> lists = new ArrayList<>();
+        if (genre != null && !genre.isBlank()) lists.add(postings(byGenre.get(key(genre))));
+        if (author != null && !author.isBlank()) lists.add(postings(byAuthor.get(key(author))));
+        if (title != null) {
+            List<String> tokens = tokenize(title);
+            for (int i = 0; i < tokens.size(); i++) {
+                boolean last = i == tokens.size() - 1 && !Character.isWhitespace(title.charAt(title.length() - 1));
+                lists.add(last ? prefixPostings(tokens.get(i)) : postings(byTitleToken.get(tokens.get(i))));
+            }
+        }
+        if (lists.isEmpty()) return NONE;
+        lists.sort(Comparator.comparingInt(PostingList::size));
+
+        int[] result = lists.get(0).ids;
+        int n = lists.get(0).size();
+        for (int i = 1; i < lists.size() && n > 0; i++) {
+            int[] next = new int[n];
+            n = intersect(result, n, lists.get(i).ids, lists.get(i).size(), next);
+            result = next;
+        }
+        int[] out = new int[n];
+        int kept = 0;
+        for (int i = 0; i < n; i++) {
+            if (!availableOnly || !unavailable.contains(result[i])) out[kept++] = result[i];
+        }
+        return kept == n ? out : Arrays.copyOf(out, kept);
+    }
+
+    // Union of the postings of every title token starting with 'prefix'
+    PostingList prefixPostings(String prefix) {
+        SortedMap<String, PostingList> matches = byTitleToken.subMap(prefix, prefix + Character.MAX_VALUE);
+        if (matches.isEmpty()) return EMPTY;
+        if (matches.size() == 1) return matches.values().iterator().next();
+        int total = 0;
+        for (PostingList p : matches.values()) total += p.size();
+        int[] all = new int[total];
+        int n = 0;
+        for (PostingList p : matches.values()) {
+            System.arraycopy(p.ids, 0, all, n, p.size());
+            n += p.size();
+        }
+        Arrays.sort(all);
+        int unique = 0;
+        for (int i = 0; i < all.length; i++) {
+            if (i == 0 || all[i] != all[i - 1]) all[unique++] = all[i];
+        }
+        return PostingList.of(Arrays.copyOf(all, unique));
+    }
+
+    // --- Helpers ---
+
+    // Writes the intersection of small and large into 'out' and returns its length. Lists of
+    // similar length are merged; otherwise the shorter one is walked while binary-searching the
+    // longer one from the previous match onwards.
+    static int intersect(int[] small, int smallSize, int[] large, int largeSize, int[] out) {
+        int n = 0;
+        if (largeSize < smallSize * 8L) {
+            for (int i = 0, j = 0; i < smallSize && j < largeSize; ) {
+                if (small[i] < large[j]) i++;
+                else if (small[i] > large[j]) j++;
+                else { out[n++] = small[i]; i++; j++; }
+            }
+            return n;
+        }
+        int from = 0;
+        for (int i = 0; i < smallSize; i++) {
+            int pos = Arrays.binarySearch(large, from, largeSize, small[i]);
+            if (pos >= 0) {
+                out[n++] = small[i];
+                from = pos + 1;
+            } else {
+                from = -pos - 1;
+                if (from == largeSize) break;
+            }
+        }
+        return n;
+    }
+
+    private static PostingList postings(PostingList p) {
+        return p == null ? EMPTY : p;
+    }
+
+    private static void removeFrom(Map<String, PostingList> index, String key, int id) {
+        PostingList p = index.get(key);
+        if (p == null) return;
+        p.remove(id);
+        if (p.size() == 0) index.remove(key);
+    }
+
+    private static String key(String s) {
+        return s.trim().toLowerCase(Locale.ROOT);
+    }
+
+    // Lower-cased runs of letters and digits
+    static List<String> tokenize(String text) {
+        List<String> tokens = new ArrayList<>();
+        int start = -1;
+        for (int i = 0; i <= text.length(); i++) {
+            boolean word = i < text.length() && Character.isLetterOrDigit(text.charAt(i));
+            if (word && start < 0) {
+                start = i;
+            } else if (!word && start >= 0) {
+                tokens.add(text.substring(start, i).toLowerCase(Locale.ROOT));
+                start = -1;
+            }
+        }
+        return tokens;
+    }
+}
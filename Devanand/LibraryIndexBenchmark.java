@@ -0,0 +1,82 @@
+package com.example.library;
+
+import java.util.*;
+
+// Compares LibraryIndex queries with a linear scan over a synthetic catalog.
+//
+// Usage: java LibraryIndexBenchmark [books] [queriesPerCase]
+public class LibraryIndexBenchmark {
+
+    static final String[] WORDS = {
+        "shadow", "river", "empire", "garden", "silent", "night", "winter", "fire", "stone", "ocean",
+        "crown", "secret", "journey", "star", "iron", "glass", "forest", "storm", "light", "city",
+        "dream", "king", "queen", "war", "peace", "song", "blood", "moon", "sun", "wolf"
+    };
+    static final String[] GENRES = {
+        "Fiction", "Mystery", "SciFi", "Fantasy", "History", "Biography", "Science", "Poetry",
+        "Horror", "Romance", "Travel", "Cooking", "Art", "Philosophy", "Children", "Drama"
+    };
+
+    public static void main(String[] args) {
+        int bookCount = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        int queries = args.length > 1 ? Integer.parseInt(args[1]) : 200;
+
+        Random rnd = new Random(42);
+        List<Book> books = new ArrayList<>(bookCount);
+        LibraryIndex index = new LibraryIndex();
+        long start = System.nanoTime();
+        for (int id = 1; id <= bookCount; id++) {
+            String title = WORDS[rnd.nextInt(WORDS.length)] + " " + WORDS[rnd.nextInt(WORDS.length)]
+                    + " " + WORDS[rnd.nextInt(WORDS.length)] + " " + id;
+            Book b = new Book(id, title, "Author " + rnd.nextInt(20_000), GENRES[rnd.nextInt(GENRES.length)], rnd.nextInt(4));
+            books.add(b);
+            index.add(b);
+        }
+        System.out.printf("Indexed %d books in %.0f ms%n", bookCount, (System.nanoTime() - start) / 1e6);
+
+        run("genre + author", queries, books, index, "Mystery", "Author 123", null, false);
+        run("genre + title word", queries, books, index, "Fantasy", null, "wolf ", false);
+        run("two title words, available", queries, books, index, null, null, "silent night ", true);
+        run("title prefix", queries, books, index, null, null, "shad", false);
+    }
+
+    static void run(String name, int queries, List<Book> books, LibraryIndex index,
+                    String genre, String author, String title, boolean availableOnly) {
+        int indexed = 0, scanned = 0;
+        for (int warm = 0; warm < 3; warm++) {
+            indexed = index.search(genre, author, title, availableOnly).length;
+            scanned = scan(books, genre, author, title, availableOnly);
+        }
+        long t0 = System.nanoTime();
+        for (int i = 0; i < queries; i++) indexed = index.search(genre, author, title, availableOnly).length;
+        long t1 = System.nanoTime();
+        int scans = Math.max(1, queries / 20);
+        for (int i = 0; i < scans; i++) scanned = scan(books, genre, author, title, availableOnly);
+        long t2 = System.nanoTime();
+        double indexUs = (t1 - t0) / 1e3 / queries;
+        double scanUs = (t2 - t1) / 1e3 / scans;
+        System.out.printf("%-28s index %9.1f us | scan %9.1f us | %6.0fx | hits %d/%d%n",
+                name, indexUs, scanUs, scanUs / indexUs, indexed, scanned);
+    }
+
+    // The same query answered the way showBooks would: look at every book
+    static int scan(List<Book> books, String genre, String author, String title, boolean availableOnly) {
+        List<String> tokens = title == null ? List.of() : LibraryIndex.tokenize(title);
+        boolean prefixLast = title != null && !title.endsWith(" ");
+        int hits = 0;
+        for (Book b : books) {
+            if (genre != null && !b.getGenre().equalsIgnoreCase(genre)) continue;
+            if (author != null && !b.getAuthor().equalsIgnoreCase(author)) continue;
+            if (availableOnly && b.getAvailableCopies() == 0) continue;
+            List<String> words = tokens.isEmpty() ? tokens : LibraryIndex.tokenize(b.getTitle());
+            boolean all = true;
+            for (int i = 0; i < tokens.size() && all; i++) {
+                String t = tokens.get(i);
+                boolean prefix = prefixLast && i == tokens.size() - 1;
+                all = words.stream().anyMatch(w -> prefix ? w.startsWith(t) : w.equals(t));
+            }
+            if (all) hits++;
+        }
+        return hits;
+    }
+}
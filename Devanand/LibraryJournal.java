@@ -0,0 +1,501 @@
+package com.example.library;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.*;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.CRC32C;
+import java.util.zip.CheckedInputStream;
+import java.util.zip.CheckedOutputStream;
+
+// Persistent store for Library: an append-only journal of mutations plus periodic snapshots.
+//
+// Each successful addBook/addUser/borrow/return becomes one small record
+//   [payloadLength:4][crc32c:4][op:1][payload]
+// so a mutation costs the same no matter how big the catalog is. Records are buffered and
+// fsynced in batches (every SYNC_BATCH records or SYNC_INTERVAL_MS, whichever comes first) by
+// the sync thread. It swaps the filled buffer for an empty one under the lock and writes and
+// forces it outside, so callers only ever copy bytes into memory; they wait only when both
+// buffers are full.
+// Once the journal holds about as many records as the last snapshot holds books and users, the
+// state is compacted into a new snapshot, which keeps the amortised cost per operation constant
+// whether the catalog is churning or only growing.
+//
+// Journals are numbered by generation. A snapshot stores the last generation it covers, and
+// compaction switches to a fresh journal before writing the snapshot, so a crash at any point
+// leaves a snapshot plus the journals that still have to be replayed. Compaction is split in
+// two: beginCompaction() switches journals and encodes the state in memory while the caller
+// keeps the maps still, and finishCompaction() does the file I/O without any of its locks.
+class LibraryJournal implements Closeable {
+    static final byte ADD_BOOK = 1;
+    static final byte ADD_USER = 2;
+    static final byte BORROW = 3;
+    static final byte RETURN = 4;
+
+    private static final int SYNC_BATCH = 256;
+    private static final long SYNC_INTERVAL_MS = 50;
+    private static final int MIN_COMPACT_RECORDS = 10_000;
+    private static final int SNAPSHOT_MAGIC = 0x4C494253;
+    private static final String SNAPSHOT_FILE = "library.snapshot";
+    private static final String JOURNAL_PREFIX = "journal-";
+    private static final String JOURNAL_SUFFIX = ".log";
+    private static final int HEADER_SIZE = 9;
+    private static final int BUFFER_SIZE = 64 * 1024;
+    // Journal records prefix strings with an unsigned short and the snapshot uses writeUTF
+    static final int MAX_STRING_BYTES = 0xFFFF;
+
+    private final Path dir;
+    private final CRC32C crc = new CRC32C();
+
+    // Mutations fill 'buffer' under this object's monitor; sync() swaps it with 'spare' and
+    // writes it out holding only 'writeLock', which is always taken before the monitor
+    private ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+    private ByteBuffer spare = ByteBuffer.allocate(BUFFER_SIZE);
+    private int recordStart;
+    private int unsynced;
+    private IOException failure;
+    private final Object writeLock = new Object();
+
+    private FileChannel journal;
+    private FileChannel retired;    // previous journal until it has been forced (guarded by writeLock)
+    private long generation;
+    private volatile long journalRecords;
+    private volatile long snapshotObjects;   // books + users in the newest snapshot
+    private final ScheduledExecutorService syncer;
+
+    private LibraryJournal(Path dir) {
+        this.dir = dir;
+        this.syncer = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "library-journal-sync");
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    // Opens the store in 'dir' and loads the snapshot and journal tail into the given maps
+    static LibraryJournal open(Path dir, Map<Integer, Book> books, Map<Integer, User> users) throws IOException {
+        Files.createDirectories(dir);
+        LibraryJournal store = new LibraryJournal(dir);
+        store.load(books, users);
+        store.syncer.scheduleWithFixedDelay(store::syncQuietly, SYNC_INTERVAL_MS, SYNC_INTERVAL_MS, TimeUnit.MILLISECONDS);
+        return store;
+    }
+
+    // --- Mutations ---
+
+    synchronized void addBook(Book b) throws IOException {
+        checkFields(b);
+        byte[] title = utf8(b.getTitle()), author = utf8(b.getAuthor()), genre = utf8(b.getGenre());
+        ByteBuffer buf = begin(4 + 4 + 6 + title.length + author.length + genre.length);
+        buf.put(ADD_BOOK).putInt(b.getId()).putInt(b.getAvailableCopies());
+        putString(buf, title);
+        putString(buf, author);
+        putString(buf, genre);
+        end();
+    }
+
+    synchronized void addUser(User u) throws IOException {
+        checkFields(u);
+        byte[] name = utf8(u.getName());
+        ByteBuffer buf = begin(4 + 2 + name.length);
+        buf.put(ADD_USER).putInt(u.getId());
+        putString(buf, name);
+        end();
+    }
+
+    synchronized void borrow(int userId, int bookId) throws IOException {
+        begin(8).put(BORROW).putInt(userId).putInt(bookId);
+        end();
+    }
+
+    synchronized void returnBook(int userId, int bookId) throws IOException {
+        begin(8).put(RETURN).putInt(userId).putInt(bookId);
+        end();
+    }
+
+    // Rejects text that neither a journal record nor the snapshot could hold, so callers can
+    // refuse it before changing any state
+    static void checkFields(Book b) {
+        checkString("title", b.getTitle());
+        checkString("author", b.getAuthor());
+        checkString("genre", b.getGenre());
+    }
+
+    static void checkFields(User u) {
+        checkString("name", u.getName());
+    }
+
+    private static void checkString(String field, String s) {
+        if (encodedLength(s) > MAX_STRING_BYTES) {
+            throw new IllegalArgumentException(field + " longer than " + MAX_STRING_BYTES + " bytes");
+        }
+    }
+
+    // Length in writeUTF's modified UTF-8, which is never shorter than the plain UTF-8 the
+    // journal writes
+    private static int encodedLength(String s) {
+        int n = 0;
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            n += c >= 1 && c <= 0x7F ? 1 : c <= 0x7FF ? 2 : 3;
+        }
+        return n;
+    }
+
+    // True once replaying the journal costs about as much as reading the snapshot. Comparing with
+    // the live count instead would never trigger while every record adds a book or user.
+    boolean shouldCompact() {
+        return journalRecords >= Math.max(MIN_COMPACT_RECORDS, snapshotObjects);
+    }
+
+    // A snapshot encoded by beginCompaction() and not yet written
+    static final class PendingSnapshot {
+        final long covered;
+        final byte[] bytes;
+
+        PendingSnapshot(long covered, byte[] bytes) {
+            this.covered = covered;
+            this.bytes = bytes;
+        }
+    }
+
+    // Writes the current state as a new snapshot and starts an empty journal.
+    // The caller must not mutate the maps while this runs.
+    void compact(Map<Integer, Book> books, Map<Integer, User> users) throws IOException {
+        finishCompaction(beginCompaction(books, users));
+    }
+
+    // Starts an empty journal and encodes the current state for finishCompaction(). The caller
+    // must not mutate the maps while this runs. No fsync happens here: the old journal is forced
+    // before anything is written to the new one.
+    PendingSnapshot beginCompaction(Map<Integer, Book> books, Map<Integer, User> users) throws IOException {
+        long covered;
+        synchronized (writeLock) {
+            retireJournal();
+            synchronized (this) {
+                write(journal);
+                retired = journal;
+                covered = generation;
+                openJournal(covered + 1, 0);
+                journalRecords = 0;
+            }
+        }
+        snapshotObjects = books.size() + users.size();
+        return new PendingSnapshot(covered, encodeSnapshot(covered, books, users));
+    }
+
+    // Writes the snapshot and deletes the journals it covers. Mutations may run meanwhile.
+    void finishCompaction(PendingSnapshot snapshot) throws IOException {
+        synchronized (writeLock) {
+            retireJournal();
+        }
+        writeSnapshot(snapshot.bytes);
+        for (long gen : journalGenerations()) {
+            if (gen <= snapshot.covered) Files.deleteIfExists(journalPath(gen));
+        }
+    }
+
+    // Writes and forces everything appended so far. Mutations keep filling the other buffer
+    // meanwhile; only the swap happens under the monitor.
+    void sync() throws IOException {
+        synchronized (writeLock) {
+            ByteBuffer out;
+            boolean force;
+            FileChannel channel;
+            synchronized (this) {
+                out = buffer;
+                buffer = spare;
+                spare = out;
+                force = unsynced > 0;
+                unsynced = 0;
+                channel = journal;
+                notifyAll();
+            }
+            try {
+                retireJournal();
+                out.flip();
+                while (out.hasRemaining()) channel.write(out);
+                if (force) channel.force(false);
+            } catch (IOException e) {
+                synchronized (this) {
+                    failure = e;
+                    notifyAll();
+                }
+                throw e;
+            } finally {
+                // empty even after a failed write, as it becomes the buffer mutations fill next;
+                // the failure is reported to the next caller instead
+                out.clear();
+            }
+        }
+    }
+
+    // Writes the buffered records to 'channel' without forcing; called under both locks
+    private void write(FileChannel channel) throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) channel.write(buffer);
+        buffer.clear();
+    }
+
+    // Forces and closes the journal that compaction switched away from; called under writeLock
+    private void retireJournal() throws IOException {
+        if (retired == null) return;
+        retired.force(false);
+        retired.close();
+        retired = null;
+    }
+
+    @Override
+    public void close() throws IOException {
+        syncer.shutdown();
+        try {
+            syncer.awaitTermination(1, TimeUnit.MINUTES);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        synchronized (writeLock) {
+            sync();
+            journal.close();
+        }
+    }
+
+    private void syncQuietly() {
+        try {
+            sync();
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    // Hands a full batch to the sync thread
+    private void requestSync() {
+        if (!syncer.isShutdown()) syncer.execute(this::syncQuietly);
+    }
+
+    // --- Record encoding ---
+
+    // Reserves room for one record and leaves the buffer positioned at the op byte.
+    // Waits for the sync thread if the buffer is full.
+    private ByteBuffer begin(int payloadSize) throws IOException {
+        int size = HEADER_SIZE + payloadSize;
+        while (buffer.remaining() < size) {
+            if (buffer.position() == 0) {
+                buffer = ByteBuffer.allocate(size);
+                break;
+            }
+            if (failure != null) {
+                IOException e = failure;
+                failure = null;
+                throw e;
+            }
+            requestSync();
+            try {
+                wait();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted waiting for the journal to drain");
+            }
+        }
+        recordStart = buffer.position();
+        buffer.putInt(payloadSize).putInt(0);
+        return buffer;
+    }
+
+    // Fills in the CRC of the record started by begin() and requests a sync once the batch is full
+    private void end() {
+        crc.reset();
+        crc.update(buffer.array(), recordStart + 8, buffer.position() - recordStart - 8);
+        buffer.putInt(recordStart + 4, (int) crc.getValue());
+        journalRecords++;
+        if (++unsynced == SYNC_BATCH) requestSync();
+    }
+
+    private static byte[] utf8(String s) {
+        return s.getBytes(StandardCharsets.UTF_8);
+    }
+
+    // Up to MAX_STRING_BYTES; the short is read back unsigned
+    private static void putString(ByteBuffer buf, byte[] s) {
+        buf.putShort((short) s.length).put(s);
+    }
+
+    private static String getString(ByteBuffer buf) {
+        byte[] s = new byte[buf.getShort() & 0xFFFF];
+        buf.get(s);
+        return new String(s, StandardCharsets.UTF_8);
+    }
+
+    // --- Loading ---
+
+    private void load(Map<Integer, Book> books, Map<Integer, User> users) throws IOException {
+        long covered = readSnapshot(books, users);
+        snapshotObjects = books.size() + users.size();
+        List<Long> generations = journalGenerations();
+        long lastGen = covered;
+        long lastValid = 0;
+        for (int i = 0; i < generations.size(); i++) {
+            long gen = generations.get(i);
+            if (gen <= covered) continue;
+            lastValid = replay(journalPath(gen), books, users, i == generations.size() - 1);
+            lastGen = gen;
+        }
+        if (lastGen > covered) {
+            openJournal(lastGen, lastValid);
+        } else {
+            openJournal(covered + 1, 0);
+        }
+    }
+
+    // Applies the records of one journal and returns the length of its valid prefix.
+    // A damaged record ends the replay; it is only tolerated at the tail of the newest journal.
+    private long replay(Path path, Map<Integer, Book> books, Map<Integer, User> users, boolean newest) throws IOException {
+        ByteBuffer data = ByteBuffer.wrap(Files.readAllBytes(path));
+        while (data.remaining() >= HEADER_SIZE) {
+            int start = data.position();
+            int payloadSize = data.getInt();
+            int expectedCrc = data.getInt();
+            if (payloadSize < 0 || data.remaining() < payloadSize + 1) {
+                data.position(start);
+                break;
+            }
+            crc.reset();
+            crc.update(data.array(), data.position(), payloadSize + 1);
+            if ((int) crc.getValue() != expectedCrc) {
+                data.position(start);
+                break;
+            }
+            apply(data, books, users);
+            data.position(start + HEADER_SIZE + payloadSize);
+            journalRecords++;
+        }
+        if (data.hasRemaining() && !newest) {
+            throw new IOException("Corrupt journal record in " + path + " at offset " + data.position());
+        }
+        return data.position();
+    }
+
+    private static void apply(ByteBuffer rec, Map<Integer, Book> books, Map<Integer, User> users) {
+        byte op = rec.get();
+        switch (op) {
+            case ADD_BOOK -> {
+                int id = rec.getInt();
+                int copies = rec.getInt();
+                books.put(id, new Book(id, getString(rec), getString(rec), getString(rec), copies));
+            }
+            case ADD_USER -> {
+                int id = rec.getInt();
+                users.put(id, new User(id, getString(rec)));
+            }
+            case BORROW -> {
+                User u = users.get(rec.getInt());
+                Book b = books.get(rec.getInt());
+                b.borrowBook();
+                u.borrowBook(b.getId());
+            }
+            case RETURN -> {
+                User u = users.get(rec.getInt());
+                Book b = books.get(rec.getInt());
+                b.returnBook();
+                u.returnBook(b.getId());
+            }
+            default -> throw new IllegalStateException("Unknown journal op " + op);
+        }
+    }
+
+    private void openJournal(long gen, long validLength) throws IOException {
+        journal = FileChannel.open(journalPath(gen), StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+        journal.truncate(validLength);
+        journal.position(validLength);
+        generation = gen;
+    }
+
+    // --- Snapshot ---
+
+    private static byte[] encodeSnapshot(long covered, Map<Integer, Book> books, Map<Integer, User> users) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(1 << 16);
+        CheckedOutputStream checked = new CheckedOutputStream(bytes, new CRC32C());
+        DataOutputStream out = new DataOutputStream(checked);
+        out.writeInt(SNAPSHOT_MAGIC);
+        out.writeLong(covered);
+        out.writeInt(books.size());
+        for (Book b : books.values()) {
+            out.writeInt(b.getId());
+            out.writeInt(b.getAvailableCopies());
+            out.writeUTF(b.getTitle());
+            out.writeUTF(b.getAuthor());
+            out.writeUTF(b.getGenre());
+        }
+        out.writeInt(users.size());
+        for (User u : users.values()) {
+            out.writeInt(u.getId());
+            out.writeUTF(u.getName());
+            int[] borrowed = u.getBorrowedBooks();
+            out.writeInt(borrowed.length);
+            for (int bookId : borrowed) out.writeInt(bookId);
+        }
+        out.writeInt((int) checked.getChecksum().getValue());
+        out.flush();
+        return bytes.toByteArray();
+    }
+
+    private void writeSnapshot(byte[] bytes) throws IOException {
+        Path target = dir.resolve(SNAPSHOT_FILE);
+        Path tmp = dir.resolve(SNAPSHOT_FILE + ".tmp");
+        try (FileOutputStream fos = new FileOutputStream(tmp.toFile())) {
+            fos.write(bytes);
+            fos.getFD().sync();
+        }
+        Files.move(tmp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    // Loads the snapshot if there is one and returns the last journal generation it covers
+    private long readSnapshot(Map<Integer, Book> books, Map<Integer, User> users) throws IOException {
+        Path path = dir.resolve(SNAPSHOT_FILE);
+        if (!Files.exists(path)) return 0;
+        try (CheckedInputStream checked = new CheckedInputStream(
+                new BufferedInputStream(Files.newInputStream(path), 1 << 16), new CRC32C())) {
+            DataInputStream in = new DataInputStream(checked);
+            if (in.readInt() != SNAPSHOT_MAGIC) throw new IOException("Not a library snapshot: " + path);
+            long covered = in.readLong();
+            int bookCount = in.readInt();
+            for (int i = 0; i < bookCount; i++) {
+                int id = in.readInt();
+                int copies = in.readInt();
+                books.put(id, new Book(id, in.readUTF(), in.readUTF(), in.readUTF(), copies));
+            }
+            int userCount = in.readInt();
+            for (int i = 0; i < userCount; i++) {
+                User u = new User(in.readInt(), in.readUTF());
+                int borrowed = in.readInt();
+                for (int j = 0; j < borrowed; j++) u.borrowBook(in.readInt());
+                users.put(u.getId(), u);
+            }
+            int expected = (int) checked.getChecksum().getValue();
+            if (in.readInt() != expected) throw new IOException("Library snapshot checksum mismatch: " + path);
+            return covered;
+        }
+    }
+
+    // --- File naming ---
+
+    private Path journalPath(long gen) {
+        return dir.resolve(String.format("%s%020d%s", JOURNAL_PREFIX, gen, JOURNAL_SUFFIX));
+    }
+
+    private List<Long> journalGenerations() throws IOException {
+        List<Long> gens = new ArrayList<>();
+        try (DirectoryStream<Path> ds = Files.newDirectoryStream(dir, JOURNAL_PREFIX + "*" + JOURNAL_SUFFIX)) {
+            for (Path p : ds) {
+                String name = p.getFileName().toString();
+                gens.add(Long.parseLong(name.substring(JOURNAL_PREFIX.length(), name.length() - JOURNAL_SUFFIX.length())));
+            }
+        }
+        Collections.sort(gens);
+        return gens;
+    }
+}
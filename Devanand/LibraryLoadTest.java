@@ -0,0 +1,224 @@
+package com.example.library;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+// Load generator for LibraryServer.
+// Each client thread drives one connection with a closed loop (send, wait for the answer, repeat)
+// over its own range of users: borrow a random book, return one of its loans, now and then a
+// search. Prints ops/s and latency percentiles for all requests together.
+//
+// Without a host the test starts a server on a temporary data directory in this process.
+//
+// Usage: java LibraryLoadTest [seconds] [clients] [books] [host:port]
+public class LibraryLoadTest {
+    static final int USERS_PER_CLIENT = 50;
+    static final int MAX_LOANS_PER_CLIENT = 200;
+
+    public static void main(String[] args) throws Exception {
+        int seconds = args.length > 0 ? Integer.parseInt(args[0]) : 10;
+        int clients = args.length > 1 ? Integer.parseInt(args[1]) : 32;
+        int books = args.length > 2 ? Integer.parseInt(args[2]) : 10_000;
+
+        LibraryServer embedded = null;
+        Library library = null;
+        InetSocketAddress address;
+        if (args.length > 3) {
+            String[] hostPort = args[3].split(":");
+            address = new InetSocketAddress(hostPort[0], Integer.parseInt(hostPort[1]));
+        } else {
+            library = new Library(Files.createTempDirectory("library-load"));
+            embedded = new LibraryServer(library, 0, Runtime.getRuntime().availableProcessors());
+            address = new InetSocketAddress(InetAddress.getLoopbackAddress(), embedded.port());
+        }
+
+        // --- Catalog ---
+        try (Client setup = new Client(address)) {
+            for (int b = 0; b < books; b++) {
+                setup.call("ADDBOOK " + b + " " + (1 + b % 4) + " Book " + b + " volume " + (b % 97)
+                        + "|Author " + (b % 300) + "|Genre " + (b % 12));
+            }
+            for (int u = 0; u < clients * USERS_PER_CLIENT; u++) setup.call("ADDUSER " + u + " Reader " + u);
+        }
+        System.out.println("Target: " + address + " | " + seconds + "s | " + clients + " clients | " + books + " books");
+
+        // --- Traffic ---
+        AtomicBoolean running = new AtomicBoolean(true);
+        Histogram[] histograms = new Histogram[clients];
+        long[] failures = new long[clients];
+        List<Thread> threads = new ArrayList<>();
+        for (int i = 0; i < clients; i++) {
+            final int client = i;
+            histograms[i] = new Histogram();
+            threads.add(new Thread(() -> {
+                try (Client c = new Client(address)) {
+                    failures[client] = drive(c, client, books, running, histograms[client]);
+                } catch (IOException e) {
+                    e.printStackTrace();
+                }
+            }));
+        }
+        long start = System.nanoTime();
+        threads.forEach(Thread::start);
+        Thread.sleep(seconds * 1000L);
+        running.set(false);
+        for (Thread t : threads) t.join();
+        double elapsed = (System.nanoTime() - start) / 1e9;
+
+        Histogram all = new Histogram();
+        long failed = 0;
+        for (int i = 0; i < clients; i++) {
+            all.add(histograms[i]);
+            failed += failures[i];
+        }
+        System.out.printf("ops/s=%,.0f  requests=%,d  refused=%,d%n", all.count / elapsed, all.count, failed);
+        System.out.printf("latency us: p50=%.0f  p90=%.0f  p99=%.0f  p99.9=%.0f  max=%.0f%n",
+                all.percentile(50) / 1e3, all.percentile(90) / 1e3, all.percentile(99) / 1e3,
+                all.percentile(99.9) / 1e3, all.max / 1e3);
+
+        if (embedded != null) {
+            embedded.close();
+            library.close();
+        }
+    }
+
+    // Returns the number of borrows refused because no copy was left
+    static long drive(Client c, int client, int books, AtomicBoolean running, Histogram latency) throws IOException {
+        ThreadLocalRandom rnd = ThreadLocalRandom.current();
+        int firstUser = client * USERS_PER_CLIENT;
+        int[] loanUser = new int[MAX_LOANS_PER_CLIENT];
+        int[] loanBook = new int[MAX_LOANS_PER_CLIENT];
+        int loans = 0;
+        long refused = 0;
+        while (running.get()) {
+            int dice = rnd.nextInt(100);
+            String request;
+            int user = -1, book = -1;
+            boolean borrowing = false;
+            if (dice < 5) {
+                request = "SEARCH Genre " + rnd.nextInt(12) + "||volume " + rnd.nextInt(97) + "|available";
+            } else if (loans > 0 && (dice < 50 || loans == MAX_LOANS_PER_CLIENT)) {
+                int pick = rnd.nextInt(loans);
+                request = "RETURN " + loanUser[pick] + " " + loanBook[pick];
+                loans--;
+                loanUser[pick] = loanUser[loans];
+                loanBook[pick] = loanBook[loans];
+            } else {
+                user = firstUser + rnd.nextInt(USERS_PER_CLIENT);
+                book = rnd.nextInt(books);
+                request = "BORROW " + user + " " + book;
+                borrowing = true;
+            }
+
+            long t0 = System.nanoTime();
+            String answer = c.call(request);
+            latency.record(System.nanoTime() - t0);
+
+            if (answer.startsWith("ERR")) throw new IOException(request + " -> " + answer);
+            if (borrowing) {
+                if (answer.equals("OK")) {
+                    loanUser[loans] = user;
+                    loanBook[loans] = book;
+                    loans++;
+                } else {
+                    refused++;
+                }
+            }
+        }
+        // hand the books back so a long-lived server is left as it was found
+        while (loans > 0) {
+            loans--;
+            c.call("RETURN " + loanUser[loans] + " " + loanBook[loans]);
+        }
+        return refused;
+    }
+
+    // Blocking line client: one request, one answer line
+    static final class Client implements AutoCloseable {
+        private final SocketChannel ch;
+        private final ByteBuffer in = ByteBuffer.allocate(64 * 1024);
+        private final StringBuilder line = new StringBuilder();
+
+        Client(InetSocketAddress address) throws IOException {
+            ch = SocketChannel.open(address);
+            ch.setOption(StandardSocketOptions.TCP_NODELAY, true);
+            in.flip();
+        }
+
+        String call(String request) throws IOException {
+            ByteBuffer out = ByteBuffer.wrap((request + "\n").getBytes(StandardCharsets.UTF_8));
+            while (out.hasRemaining()) ch.write(out);
+            line.setLength(0);
+            while (true) {
+                while (in.hasRemaining()) {
+                    char c = (char) in.get();   // answers are ASCII
+                    if (c == '\n') return line.toString();
+                    line.append(c);
+                }
+                in.clear();
+                if (ch.read(in) < 0) throw new IOException("Server closed the connection");
+                in.flip();
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            ch.close();
+        }
+    }
+
+    // Log-linear latency histogram: 16 buckets per power of two, so percentiles are within ~6%
+    static final class Histogram {
+        private static final int SUB_BITS = 4;
+        private final long[] buckets = new long[64 << SUB_BITS];
+        long count;
+        long max;
+
+        void record(long nanos) {
+            buckets[index(nanos)]++;
+            count++;
+            if (nanos > max) max = nanos;
+        }
+
+        void add(Histogram other) {
+            for (int i = 0; i < buckets.length; i++) buckets[i] += other.buckets[i];
+            count += other.count;
+            max = Math.max(max, other.max);
+        }
+
+        // Upper bound of the bucket holding the given percentile
+        double percentile(double p) {
+            long rank = (long) Math.ceil(count * p / 100.0);
+            long seen = 0;
+            for (int i = 0; i < buckets.length; i++) {
+                seen += buckets[i];
+                if (seen >= rank && seen > 0) return Math.min(upperBound(i), max);
+            }
+            return max;
+        }
+
+        private static int index(long v) {
+            if (v < (1 << SUB_BITS)) return (int) v;
+            int exp = 63 - Long.numberOfLeadingZeros(v);
+            int sub = (int) (v >>> (exp - SUB_BITS)) & ((1 << SUB_BITS) - 1);
+            return ((exp - SUB_BITS + 1) << SUB_BITS) + sub;
+        }
+
+        private static long upperBound(int i) {
+            if (i < (1 << SUB_BITS)) return i;
+            int exp = (i >>> SUB_BITS) + SUB_BITS - 1;
+            long sub = i & ((1 << SUB_BITS) - 1);
+            return ((1L << SUB_BITS) + sub + 1) << (exp - SUB_BITS);
+        }
+    }
+}
@@ -0,0 +1,335 @@
+package com.example.library;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.*;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+// Non-blocking TCP front end for Library.
+//
+// One acceptor thread hands new connections round-robin to a few event loops. Each loop owns a
+// Selector and its connections, reads whatever bytes arrived, runs every complete request line
+// against the (thread-safe) Library and writes the answers back, so thousands of idle or slow
+// clients cost a buffer each rather than a thread each. Requests may be pipelined; answers come
+// back in order. A client that stops reading its answers stops being read from once
+// MAX_PENDING_OUTPUT bytes are queued for it. Requests run on the loop threads; Library leaves
+// journal fsyncs and snapshot writes to its own threads, so mutations here only touch memory.
+// A request that fails unexpectedly gets "ERR internal error" and costs only its own connection.
+// The server listens on loopback unless given another address.
+//
+// Protocol: one request per line, one answer line per request ("OK ...", "FAIL" or "ERR ...").
+//   PING
+//   ADDUSER <id> <name>
+//   ADDBOOK <id> <copies> <title>|<author>|<genre>
+//   BORROW <userId> <bookId>
+//   RETURN <userId> <bookId>
+//   BOOK <id>                                -> OK <id>|<title>|<author>|<genre>|<copies>
+//   SEARCH <genre>|<author>|<title>[|available]  -> OK <matches> <id> <id> ... (first MAX_SEARCH_IDS ids)
+//   WHOHAS <bookId>                          -> OK <userId> <userId> ...
+class LibraryServer implements Closeable {
+    private static final int READ_BUFFER_SIZE = 8 * 1024;
+    private static final int MAX_LINE = 64 * 1024;
+    private static final int MAX_PENDING_OUTPUT = 256 * 1024;
+    private static final int MAX_SEARCH_IDS = 100;
+
+    private final Library library;
+    private final ServerSocketChannel server;
+    private final EventLoop[] loops;
+    private final Thread acceptor;
+    private volatile boolean running = true;
+
+    LibraryServer(Library library, int port, int eventLoops) throws IOException {
+        this(library, InetAddress.getLoopbackAddress(), port, eventLoops);
+    }
+
+    LibraryServer(Library library, InetAddress address, int port, int eventLoops) throws IOException {
+        this.library = library;
+        server = ServerSocketChannel.open();
+        server.setOption(StandardSocketOptions.SO_REUSEADDR, true);
+        server.bind(new InetSocketAddress(address, port), 1024);
+        loops = new EventLoop[eventLoops];
+        for (int i = 0; i < eventLoops; i++) {
+            loops[i] = new EventLoop();
+            Thread t = new Thread(loops[i], "library-loop-" + i);
+            t.setDaemon(true);
+            t.start();
+        }
+        acceptor = new Thread(this::acceptLoop, "library-acceptor");
+        acceptor.setDaemon(true);
+        acceptor.start();
+    }
+
+    int port() {
+        return server.socket().getLocalPort();
+    }
+
+    InetAddress address() {
+        return server.socket().getInetAddress();
+    }
+
+    @Override
+    public void close() throws IOException {
+        running = false;
+        server.close();
+        for (EventLoop loop : loops) loop.selector.wakeup();
+        try {
+            acceptor.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void acceptLoop() {
+        int next = 0;
+        while (running) {
+            try {
+                SocketChannel ch = server.accept();
+                ch.setOption(StandardSocketOptions.TCP_NODELAY, true);
+                ch.configureBlocking(false);
+                loops[next].hand(ch);
+                next = (next + 1) % loops.length;
+            } catch (ClosedChannelException e) {
+                return;
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+        }
+    }
+
+    // --- Event loop ---
+
+    private static final class Connection {
+        ByteBuffer in = ByteBuffer.allocate(READ_BUFFER_SIZE);
+        ByteBuffer out = ByteBuffer.allocate(READ_BUFFER_SIZE);   // kept in write mode
+        boolean skipping;    // dropping the rest of an over-long line up to its '\n'
+        boolean failed;      // a request threw; closed once its answer has been sent
+    }
+
+    private final class EventLoop implements Runnable {
+        final Selector selector;
+        final Queue<SocketChannel> incoming = new ConcurrentLinkedQueue<>();
+
+        EventLoop() throws IOException {
+            selector = Selector.open();
+        }
+
+        void hand(SocketChannel ch) {
+            incoming.add(ch);
+            selector.wakeup();
+        }
+
+        @Override
+        public void run() {
+            try {
+                while (running) {
+                    selector.select();
+                    SocketChannel ch;
+                    while ((ch = incoming.poll()) != null) {
+                        ch.register(selector, SelectionKey.OP_READ, new Connection());
+                    }
+                    Iterator<SelectionKey> it = selector.selectedKeys().iterator();
+                    while (it.hasNext()) {
+                        SelectionKey key = it.next();
+                        it.remove();
+                        try {
+                            if (key.isReadable()) read(key);
+                            if (key.isValid() && key.isWritable()) write(key);
+                        } catch (IOException | CancelledKeyException e) {
+                            closeQuietly(key);
+                        } catch (RuntimeException e) {
+                            e.printStackTrace();
+                            closeQuietly(key);
+                        }
+                    }
+                }
+            } catch (IOException e) {
+                e.printStackTrace();
+            } finally {
+                for (SelectionKey key : selector.keys()) closeQuietly(key);
+                try {
+                    selector.close();
+                } catch (IOException e) {
+                    e.printStackTrace();
+                }
+            }
+        }
+
+        private void read(SelectionKey key) throws IOException {
+            Connection c = (Connection) key.attachment();
+            SocketChannel ch = (SocketChannel) key.channel();
+            int n = ch.read(c.in);
+            if (n < 0) {
+                closeQuietly(key);
+                return;
+            }
+            c.in.flip();
+            int lineStart = c.in.position();
+            if (c.skipping) {
+                int i = lineStart;
+                while (i < c.in.limit() && c.in.get(i) != '\n') i++;
+                if (i == c.in.limit()) {
+                    c.in.clear();
+                    return;
+                }
+                c.skipping = false;
+                lineStart = i + 1;
+            }
+            for (int i = lineStart; i < c.in.limit(); i++) {
+                if (c.in.get(i) != '\n') continue;
+                int end = i > lineStart && c.in.get(i - 1) == '\r' ? i - 1 : i;
+                String line = new String(c.in.array(), lineStart, end - lineStart, StandardCharsets.UTF_8);
+                try {
+                    respond(c, handle(line));
+                } catch (RuntimeException e) {
+                    e.printStackTrace();
+                    respond(c, "ERR internal error");
+                    c.failed = true;
+                    break;
+                }
+                lineStart = i + 1;
+            }
+            if (c.failed) {
+                write(key);
+                closeQuietly(key);
+                return;
+            }
+            c.in.position(lineStart);
+            c.in.compact();
+            if (!c.in.hasRemaining()) {
+                if (c.in.capacity() >= MAX_LINE) {
+                    respond(c, "ERR line too long");
+                    c.in.clear();
+                    c.skipping = true;
+                } else {
+                    c.in = grow(c.in, c.in.capacity() * 2);
+                }
+            }
+            write(key);
+        }
+
+        // Flushes queued answers; only asks for OP_WRITE while some are left, and stops reading
+        // from a client that is not keeping up with its answers
+        private void write(SelectionKey key) throws IOException {
+            Connection c = (Connection) key.attachment();
+            c.out.flip();
+            ((SocketChannel) key.channel()).write(c.out);
+            c.out.compact();
+            int ops = SelectionKey.OP_READ;
+            if (c.out.position() > 0) {
+                ops |= SelectionKey.OP_WRITE;
+                if (c.out.position() > MAX_PENDING_OUTPUT) ops &= ~SelectionKey.OP_READ;
+            }
+            if (key.interestOps() != ops) key.interestOps(ops);
+        }
+
+        private void respond(Connection c, String answer) {
+            byte[] bytes = (answer + "\n").getBytes(StandardCharsets.UTF_8);
+            if (c.out.remaining() < bytes.length) {
+                c.out = grow(c.out, Math.max(c.out.capacity() * 2, c.out.position() + bytes.length));
+            }
+            c.out.put(bytes);
+        }
+    }
+
+    private static ByteBuffer grow(ByteBuffer buf, int capacity) {
+        ByteBuffer bigger = ByteBuffer.allocate(capacity);
+        buf.flip();
+        bigger.put(buf);
+        return bigger;
+    }
+
+    private static void closeQuietly(SelectionKey key) {
+        key.cancel();
+        try {
+            key.channel().close();
+        } catch (IOException ignored) {
+        }
+    }
+
+    // --- Requests ---
+
+    String handle(String line) {
+        int space = line.indexOf(' ');
+        String command = space < 0 ? line : line.substring(0, space);
+        String rest = space < 0 ? "" : line.substring(space + 1);
+        try {
+            switch (command.toUpperCase()) {
+                case "PING":
+                    return "OK";
+                case "BORROW": {
+                    String[] ids = rest.trim().split(" +");
+                    return library.borrowBook(Integer.parseInt(ids[0]), Integer.parseInt(ids[1])) ? "OK" : "FAIL";
+                }
+                case "RETURN": {
+                    String[] ids = rest.trim().split(" +");
+                    return library.returnBook(Integer.parseInt(ids[0]), Integer.parseInt(ids[1])) ? "OK" : "FAIL";
+                }
+                case "ADDUSER": {
+                    String[] f = rest.split(" ", 2);
+                    library.addUser(new User(Integer.parseInt(f[0]), f[1]));
+                    return "OK";
+                }
+                case "ADDBOOK": {
+                    String[] f = rest.split(" ", 3);
+                    String[] text = f[2].split("\\|", -1);
+                    library.addBook(new Book(Integer.parseInt(f[0]), text[0], text[1], text[2], Integer.parseInt(f[1])));
+                    return "OK";
+                }
+                case "BOOK": {
+                    Book b = library.getBook(Integer.parseInt(rest.trim()));
+                    if (b == null) return "FAIL";
+                    return "OK " + b.getId() + "|" + b.getTitle() + "|" + b.getAuthor() + "|" + b.getGenre()
+                            + "|" + b.getAvailableCopies();
+                }
+                case "SEARCH": {
+                    String[] f = rest.split("\\|", -1);
+                    boolean availableOnly = f.length > 3 && f[3].trim().equalsIgnoreCase("available");
+                    List<Book> found = library.searchBooks(f[0], f.length > 1 ? f[1] : null,
+                            f.length > 2 ? f[2] : null, availableOnly);
+                    StringBuilder sb = new StringBuilder("OK ").append(found.size());
+                    for (int i = 0; i < found.size() && i < MAX_SEARCH_IDS; i++) sb.append(' ').append(found.get(i).getId());
+                    return sb.toString();
+                }
+                case "WHOHAS": {
+                    StringBuilder sb = new StringBuilder("OK");
+                    for (int uid : library.whoHas(Integer.parseInt(rest.trim()))) sb.append(' ').append(uid);
+                    return sb.toString();
+                }
+                default:
+                    return "ERR unknown command " + command;
+            }
+        } catch (IllegalArgumentException | IndexOutOfBoundsException e) {
+            // malformed numbers, missing fields, text too long to store
+            return "ERR bad request";
+        }
+    }
+
+    // Runs a server until the process is stopped
+    static void serve(InetAddress address, int port, int eventLoops) throws IOException {
+        Library library = new Library();
+        LibraryServer server = new LibraryServer(library, address, port, eventLoops);
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            try {
+                server.close();
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+            library.close();
+        }));
+        System.out.println("Library server listening on " + address.getHostAddress() + ":" + server.port()
+                + " with " + eventLoops + " event loop(s)");
+        try {
+            server.acceptor.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,132 @@
+package com.example.library;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+// Multi-threaded stress test for Library's borrow/return engine.
+//  1. Many threads race for the last copy of one book: exactly one may win.
+//  2. Random borrow/return traffic at 1, 2, 4 ... N threads, reporting ops/s, followed by a
+//     consistency check: for every book, copies on the shelf + copies on loan == copies added.
+//
+// Usage: java LibraryStressTest [seconds per thread count] [books] [users]
+public class LibraryStressTest {
+
+    public static void main(String[] args) throws Exception {
+        int seconds = args.length > 0 ? Integer.parseInt(args[0]) : 3;
+        int bookCount = args.length > 1 ? Integer.parseInt(args[1]) : 10_000;
+        int userCount = args.length > 2 ? Integer.parseInt(args[2]) : 2_000;
+        int cores = Runtime.getRuntime().availableProcessors();
+
+        Path dir = Files.createTempDirectory("library-stress");
+        Library library = new Library(dir);
+
+        // --- Last copy race ---
+        int racers = Math.max(8, cores * 4);
+        int winners = lastCopyRace(library, racers);
+        System.out.println("Last copy race: " + racers + " threads, " + winners + " winner(s) "
+                + (winners == 1 && library.getBook(0).getAvailableCopies() == 0 ? "OK" : "FAIL"));
+
+        // --- Random traffic ---
+        Map<Integer, Integer> initialCopies = addCatalog(library, bookCount, racers, userCount);
+        initialCopies.put(0, 1);
+
+        double singleThread = 0;
+        for (int n = 1; n <= Math.max(4, cores); n *= 2) {
+            double opsPerSec = runTraffic(library, n, seconds, bookCount, racers, userCount);
+            if (n == 1) singleThread = opsPerSec;
+            System.out.printf("%2d threads: %,12.0f ops/s  (%.2fx)%n", n, opsPerSec, opsPerSec / singleThread);
+        }
+
+        int broken = brokenBooks(library, initialCopies);
+        System.out.println("Consistency check: " + (broken == 0 ? "OK" : broken + " books oversold or lost"));
+        library.close();
+    }
+
+    // Adds book 0 with a single copy and users 0..racers-1, who all try to borrow it at once.
+    // Returns how many succeeded.
+    static int lastCopyRace(Library library, int racers) throws InterruptedException {
+        library.addBook(new Book(0, "The Last Copy", "Nobody", "Drama", 1));
+        for (int u = 0; u < racers; u++) library.addUser(new User(u, "Racer " + u));
+        CountDownLatch go = new CountDownLatch(1);
+        AtomicInteger winners = new AtomicInteger();
+        List<Thread> threads = new ArrayList<>();
+        for (int u = 0; u < racers; u++) {
+            final int userId = u;
+            threads.add(new Thread(() -> {
+                try {
+                    go.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                if (library.borrowBook(userId, 0)) winners.incrementAndGet();
+            }));
+        }
+        threads.forEach(Thread::start);
+        go.countDown();
+        for (Thread t : threads) t.join();
+        return winners.get();
+    }
+
+    // Adds books 1..bookCount and the users runTraffic picks from; returns each book's copies
+    static Map<Integer, Integer> addCatalog(Library library, int bookCount, int firstUser, int userCount) {
+        Map<Integer, Integer> initialCopies = new HashMap<>();
+        for (int b = 1; b <= bookCount; b++) {
+            int copies = 1 + b % 3;
+            library.addBook(new Book(b, "Book " + b, "Author " + (b % 500), "Genre " + (b % 20), copies));
+            initialCopies.put(b, copies);
+        }
+        for (int u = firstUser; u < firstUser + userCount; u++) library.addUser(new User(u, "User " + u));
+        return initialCopies;
+    }
+
+    // Books whose copies on the shelf plus copies on loan differ from the copies added
+    static int brokenBooks(Library library, Map<Integer, Integer> initialCopies) {
+        int broken = 0;
+        Map<Integer, Integer> onLoan = new HashMap<>();
+        for (User u : library.getUsers()) {
+            for (int bookId : u.getBorrowedBooks()) onLoan.merge(bookId, 1, Integer::sum);
+        }
+        for (Map.Entry<Integer, Integer> e : initialCopies.entrySet()) {
+            Book b = library.getBook(e.getKey());
+            int loaned = onLoan.getOrDefault(e.getKey(), 0);
+            if (b.getAvailableCopies() < 0 || b.getAvailableCopies() + loaned != e.getValue()) broken++;
+        }
+        return broken;
+    }
+
+    static double runTraffic(Library library, int threadCount, int seconds, int bookCount,
+                             int firstUser, int userCount) throws InterruptedException {
+        AtomicBoolean running = new AtomicBoolean(true);
+        LongAdder ops = new LongAdder();
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < threadCount; t++) {
+            threads.add(new Thread(() -> {
+                ThreadLocalRandom rnd = ThreadLocalRandom.current();
+                long done = 0;
+                while (running.get()) {
+                    int userId = firstUser + rnd.nextInt(userCount);
+                    int bookId = 1 + rnd.nextInt(bookCount);
+                    if (rnd.nextBoolean()) library.borrowBook(userId, bookId);
+                    else library.returnBook(userId, bookId);
+                    done++;
+                }
+                ops.add(done);
+            }));
+        }
+        long start = System.nanoTime();
+        threads.forEach(Thread::start);
+        Thread.sleep(seconds * 1000L);
+        running.set(false);
+        for (Thread t : threads) t.join();
+        return ops.sum() / ((System.nanoTime() - start) / 1e9);
+    }
+}
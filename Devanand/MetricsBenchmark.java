@@ -0,0 +1,128 @@
+package com.example.library;
+
+import com.hacktoberfest2025.metrics.Metrics;
+
+import java.lang.management.ManagementFactory;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+// Cost of the shared Metrics layer on the paths it instruments:
+//  1. ns/op and bytes/op of counter, histogram and timed (nanoTime + histogram) updates
+//  2. the same updates from N threads at once on one shared series
+//  3. what that adds to a Library borrow+return pair, which records two timings per pair
+//  4. scrape of the registry over the /metrics endpoint
+//
+// Usage: java MetricsBenchmark [millions of updates] [threads]
+public class MetricsBenchmark {
+    static volatile long blackhole;
+
+    public static void main(String[] args) throws Exception {
+        int updates = (args.length > 0 ? Integer.parseInt(args[0]) : 20) * 1_000_000;
+        int threads = args.length > 1 ? Integer.parseInt(args[1]) : Math.max(4, Runtime.getRuntime().availableProcessors());
+        Metrics metrics = new Metrics();
+        Metrics.Counter counter = metrics.counter("bench_total", "Benchmark counter.");
+        Metrics.Histogram histogram = metrics.histogram("bench_duration_seconds", "Benchmark histogram.");
+
+        // --- 1. single thread ---
+        long sink = 0;
+        for (int round = 0; round < 4; round++) {   // first round warms up
+            long a0 = allocated(), t0 = System.nanoTime();
+            for (int i = 0; i < updates; i++) counter.inc();
+            long t1 = System.nanoTime(), a1 = allocated();
+            for (int i = 0; i < updates; i++) histogram.record(i & 0xFFFFF);
+            long t2 = System.nanoTime(), a2 = allocated();
+            for (int i = 0; i < updates; i++) histogram.recordSince(System.nanoTime());
+            long t3 = System.nanoTime(), a3 = allocated();
+            for (int i = 0; i < updates; i++) sink += System.nanoTime();
+            long t4 = System.nanoTime();
+            if (round > 0) {
+                System.out.printf("counter.inc %5.1f ns (%d B) | histogram.record %5.1f ns (%d B) | recordSince %5.1f ns (%d B) | nanoTime alone %5.1f ns%n",
+                        (t1 - t0) / (double) updates, (a1 - a0) / updates,
+                        (t2 - t1) / (double) updates, (a2 - a1) / updates,
+                        (t3 - t2) / (double) updates, (a3 - a2) / updates,
+                        (t4 - t3) / (double) updates);
+            }
+        }
+        long expected = 4L * updates;
+        System.out.println((counter.get() == expected && histogram.count() == 2 * expected ? "OK   " : "FAIL ")
+                + "no lost updates (single thread)");
+
+        // --- 2. contended ---
+        Metrics.Counter shared = metrics.counter("bench_shared_total", "Shared benchmark counter.");
+        Metrics.Histogram sharedTimes = metrics.histogram("bench_shared_seconds", "Shared benchmark histogram.");
+        int perThread = updates / threads;
+        List<Thread> workers = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            workers.add(new Thread(() -> {
+                for (int i = 0; i < perThread; i++) {
+                    shared.inc();
+                    sharedTimes.record(i & 0xFFFFF);
+                }
+            }));
+        }
+        long t0 = System.nanoTime();
+        workers.forEach(Thread::start);
+        for (Thread w : workers) w.join();
+        double ns = (System.nanoTime() - t0) / (double) (perThread * (long) threads);
+        System.out.printf("%d threads on one series: %.1f ns per counter+histogram update%n", threads, ns);
+        System.out.println((shared.get() == (long) perThread * threads && sharedTimes.count() == shared.get() ? "OK   " : "FAIL ")
+                + "no lost updates (" + threads + " threads)");
+
+        // --- 3. relative to a Library operation ---
+        Path dir = Files.createTempDirectory("metrics-bench");
+        Library library = new Library(dir);
+        int books = 1_000;
+        for (int b = 0; b < books; b++) library.addBook(new Book(b, "Book " + b, "Author", "Genre", 1));
+        library.addUser(new User(1, "Reader"));
+        int pairs = 200_000;
+        double pairNs = 0, timingNs = 0;
+        for (int round = 0; round < 3; round++) {
+            t0 = System.nanoTime();
+            for (int i = 0; i < pairs; i++) {
+                library.borrowBook(1, i % books);
+                library.returnBook(1, i % books);
+            }
+            pairNs = (System.nanoTime() - t0) / (double) pairs;
+            t0 = System.nanoTime();
+            for (int i = 0; i < pairs; i++) {
+                histogram.recordSince(System.nanoTime());
+                histogram.recordSince(System.nanoTime());
+            }
+            timingNs = (System.nanoTime() - t0) / (double) pairs;
+        }
+        library.close();
+        System.out.printf("Library borrow+return %.0f ns/pair, of which metrics ~%.0f ns (%.1f%%)%n",
+                pairNs, timingNs, 100 * timingNs / pairNs);
+
+        // --- 4. scrape ---
+        for (int s = 0; s < 100; s++) {
+            metrics.histogram("bench_series_seconds", "Many labelled series.", "series", "s" + s).record(s * 1000L);
+        }
+        var server = metrics.serve(0);
+        HttpClient client = HttpClient.newHttpClient();
+        HttpRequest request = HttpRequest.newBuilder(
+                URI.create("http://127.0.0.1:" + server.getAddress().getPort() + "/metrics")).build();
+        String body = null;
+        t0 = System.nanoTime();
+        int scrapes = 200;
+        for (int i = 0; i < scrapes; i++) body = client.send(request, HttpResponse.BodyHandlers.ofString()).body();
+        double scrapeMs = (System.nanoTime() - t0) / 1e6 / scrapes;
+        server.stop(0);
+        System.out.printf("scrape of %d series: %,d bytes in %.2f ms%n", 100 + 4, body.length(), scrapeMs);
+        System.out.println((body.contains("# TYPE bench_total counter\nbench_total " + counter.get() + "\n")
+                && body.contains("bench_series_seconds_bucket{series=\"s99\",le=\"+Inf\"} 1\n") ? "OK   " : "FAIL ")
+                + "exposition format");
+        blackhole = sink;
+    }
+
+    // Bytes allocated so far by this thread
+    static long allocated() {
+        return ((com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean()).getCurrentThreadAllocatedBytes();
+    }
+}
@@ -0,0 +1,109 @@
+package com.example.shop;
+
+import java.util.HashMap;
+import java.util.Map;
+
+// Exact checkout pricing in cents.
+//
+// Coupon rules are stacked in the order they were registered: each one sees the total left by
+// the previous ones. A rule is either a percentage off (in basis points, rounded half up to the
+// cent) or a fixed amount off once the running total reaches a minimum, never going below zero.
+// A cart says which coupons it holds with a bit mask over rule indexes, so at most 64 rules.
+//
+// checkout(long[] ...) prices a whole burst of carts at once: rules are the outer loop and
+// carts the inner one, over flat long arrays, so each rule's parameters are loaded once and the
+// inner loop is straight-line arithmetic the JIT can unroll.
+class PricingEngine {
+    static final int MAX_RULES = 64;
+    private static final int PERCENT_OFF = 0;
+    private static final int AMOUNT_OFF = 1;
+
+    private final Map<String, Integer> ruleByCode = new HashMap<>();
+    private final int[] kind = new int[MAX_RULES];
+    private final long[] value = new long[MAX_RULES];       // basis points or cents
+    private final long[] minTotal = new long[MAX_RULES];    // cents
+    private int rules;
+
+    static long toCents(double amount) {
+        return Math.round(amount * 100);
+    }
+
+    static String format(long cents) {
+        return (cents < 0 ? "-" : "") + Math.abs(cents) / 100 + "." + String.format("%02d", Math.abs(cents) % 100);
+    }
+
+    // e.g. addPercentOff("NEW10", 1000) for 10% off; returns the rule index
+    int addPercentOff(String code, int basisPoints) {
+        if (basisPoints < 0 || basisPoints > 10_000) throw new IllegalArgumentException("Bad discount: " + basisPoints);
+        return addRule(code, PERCENT_OFF, basisPoints, 0);
+    }
+
+    // e.g. addAmountOff("FIVEOFF50", 500, 5000) for $5 off orders of $50 or more
+    int addAmountOff(String code, long cents, long minTotalCents) {
+        if (cents < 0) throw new IllegalArgumentException("Bad amount: " + cents);
+        return addRule(code, AMOUNT_OFF, cents, minTotalCents);
+    }
+
+    int ruleCount() { return rules; }
+
+    boolean isValid(String code) { return ruleByCode.containsKey(code); }
+
+    // Mask with the bit of every known code set; unknown codes are ignored
+    long maskOf(String... codes) {
+        long mask = 0;
+        for (String code : codes) {
+            Integer rule = ruleByCode.get(code);
+            if (rule != null) mask |= 1L << rule;
+        }
+        return mask;
+    }
+
+    // Price of one cart after its coupons
+    long checkout(long subtotalCents, long couponMask) {
+        long total = subtotalCents;
+        for (int r = 0; r < rules; r++) {
+            if ((couponMask >>> r & 1) != 0) total = apply(r, total);
+        }
+        return total;
+    }
+
+    // Prices carts [0, count): out[i] = checkout(subtotals[i], masks[i]). 'out' may be 'subtotals'.
+    void checkout(long[] subtotals, long[] masks, long[] out, int count) {
+        if (out != subtotals) System.arraycopy(subtotals, 0, out, 0, count);
+        long any = 0;
+        for (int i = 0; i < count; i++) any |= masks[i];
+        for (int r = 0; r < rules; r++) {
+            if ((any >>> r & 1) == 0) continue;   // no cart in the burst holds this coupon
+            long v = value[r];
+            if (kind[r] == PERCENT_OFF) {
+                for (int i = 0; i < count; i++) {
+                    long t = out[i];
+                    long discounted = t - (t * v + 5_000) / 10_000;
+                    out[i] = (masks[i] >>> r & 1) != 0 ? discounted : t;
+                }
+            } else {
+                long min = minTotal[r];
+                for (int i = 0; i < count; i++) {
+                    long t = out[i];
+                    long discounted = t >= min ? Math.max(0, t - v) : t;
+                    out[i] = (masks[i] >>> r & 1) != 0 ? discounted : t;
+                }
+            }
+        }
+    }
+
+    private long apply(int r, long total) {
+        if (kind[r] == PERCENT_OFF) return total - (total * value[r] + 5_000) / 10_000;
+        return total >= minTotal[r] ? Math.max(0, total - value[r]) : total;
+    }
+
+    private int addRule(String code, int ruleKind, long ruleValue, long min) {
+        if (ruleByCode.containsKey(code)) throw new IllegalArgumentException("Duplicate coupon: " + code);
+        if (rules == MAX_RULES) throw new IllegalStateException("At most " + MAX_RULES + " coupon rules");
+        kind[rules] = ruleKind;
+        value[rules] = ruleValue;
+        minTotal[rules] = min;
+        ruleByCode.put(code, rules);
+        return rules++;
+    }
+}
@@ -0,0 +1,94 @@
+package com.example.shop;
+
+import java.util.*;
+
+// Product catalog with the two orderings ShoppingCart needs kept up to date on every change:
+//
+//   byPopularity  (popularity desc, id)  -> topByPopularity(k) reads the first k entries
+//   byPrice       (price, id)            -> inPriceRange(min, max) is a subSet view
+//
+// Both are red-black trees, so a popularity or price change is a remove and re-insert in
+// O(log n) and a top-k query costs O(log n + k) whatever the catalog size. Products must only be
+// changed through this class, since their fields are the tree keys.
+class ProductCatalog {
+    private static final Comparator<Product> BY_POPULARITY = (a, b) -> {
+        if (a.popularity != b.popularity) return Integer.compare(b.popularity, a.popularity);
+        return Integer.compare(a.id, b.id);
+    };
+    private static final Comparator<Product> BY_PRICE = (a, b) -> {
+        int c = Double.compare(a.price, b.price);
+        return c != 0 ? c : Integer.compare(a.id, b.id);
+    };
+
+    private final Map<Integer, Product> byId = new HashMap<>();
+    private final TreeSet<Product> byPopularity = new TreeSet<>(BY_POPULARITY);
+    private final TreeSet<Product> byPrice = new TreeSet<>(BY_PRICE);
+
+    int size() { return byId.size(); }
+
+    Product get(int id) { return byId.get(id); }
+
+    boolean contains(int id) { return byId.containsKey(id); }
+
+    // Adds a product or replaces the one with the same id
+    void put(Product p) {
+        remove(p.id);
+        byId.put(p.id, p);
+        byPopularity.add(p);
+        byPrice.add(p);
+    }
+
+    Product remove(int id) {
+        Product old = byId.remove(id);
+        if (old != null) {
+            byPopularity.remove(old);
+            byPrice.remove(old);
+        }
+        return old;
+    }
+
+    boolean setPopularity(int id, int popularity) {
+        Product p = byId.get(id);
+        if (p == null) return false;
+        byPopularity.remove(p);
+        p.popularity = popularity;
+        byPopularity.add(p);
+        return true;
+    }
+
+    // e.g. one more sale or view
+    boolean addPopularity(int id, int delta) {
+        Product p = byId.get(id);
+        return p != null && setPopularity(id, p.popularity + delta);
+    }
+
+    boolean setPrice(int id, double price) {
+        Product p = byId.get(id);
+        if (p == null) return false;
+        byPrice.remove(p);
+        p.price = price;
+        byPrice.add(p);
+        return true;
+    }
+
+    // The k most popular products, most popular first (ties by id)
+    List<Product> topByPopularity(int k) {
+        List<Product> top = new ArrayList<>(Math.min(k, byPopularity.size()));
+        for (Product p : byPopularity) {
+            if (top.size() == k) break;
+            top.add(p);
+        }
+        return top;
+    }
+
+    // Live view of the products priced min..max (inclusive), cheapest first
+    NavigableSet<Product> inPriceRange(double min, double max) {
+        if (min > max) return Collections.emptyNavigableSet();
+        return byPrice.subSet(new Product(Integer.MIN_VALUE, null, min, 0), true,
+                new Product(Integer.MAX_VALUE, null, max, 0), true);
+    }
+
+    Collection<Product> all() {
+        return Collections.unmodifiableCollection(byId.values());
+    }
+}
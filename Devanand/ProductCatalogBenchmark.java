@@ -0,0 +1,114 @@
+package com.example.shop;
+
+import java.util.*;
+
+// ProductCatalog and Cart against the scans ShoppingCart used to do, on a 1M-product catalog:
+//   - top-10 by popularity while popularity keeps changing (tree vs a full scan with a bounded heap)
+//   - price-range queries (tree subSet vs filtering every product)
+//   - cart add/remove/total (quantity map with a running total vs ArrayList removeIf + re-sum)
+//
+// Usage: java ProductCatalogBenchmark [products]
+public class ProductCatalogBenchmark {
+
+    public static void main(String[] args) {
+        int n = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        Random rnd = new Random(42);
+
+        long t0 = System.nanoTime();
+        ProductCatalog catalog = new ProductCatalog();
+        List<Product> plain = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) {
+            Product p = new Product(i, "Product " + i, 1 + rnd.nextInt(100_000) / 100.0, rnd.nextInt(1_000_000));
+            catalog.put(p);
+            plain.add(p);
+        }
+        System.out.printf("Built %,d-product catalog in %d ms%n", n, (System.nanoTime() - t0) / 1_000_000);
+
+        // --- Top-K under popularity churn ---
+        int updates = 1_000_000, queryEvery = 100;
+        long checksum = 0;
+        t0 = System.nanoTime();
+        for (int i = 0; i < updates; i++) {
+            catalog.addPopularity(rnd.nextInt(n), rnd.nextInt(50));
+            if (i % queryEvery == 0) checksum += catalog.topByPopularity(10).get(0).id;
+        }
+        long indexed = System.nanoTime() - t0;
+        System.out.printf("Top-10: %,d popularity updates + %,d queries: %.2f us/update (query included)%n",
+                updates, updates / queryEvery, indexed / 1e3 / updates);
+
+        int scans = 50;
+        t0 = System.nanoTime();
+        for (int i = 0; i < scans; i++) checksum += scanTop(plain, 10).get(0).id;
+        double scanMs = (System.nanoTime() - t0) / 1e6 / scans;
+        long t1 = System.nanoTime();
+        for (int i = 0; i < 10_000; i++) checksum += catalog.topByPopularity(10).get(0).id;
+        double treeUs = (System.nanoTime() - t1) / 1e3 / 10_000;
+        System.out.printf("Top-10 query: tree %.2f us | full scan %.1f ms%n", treeUs, scanMs);
+        if (!catalog.topByPopularity(10).equals(scanTop(plain, 10))) throw new AssertionError("top-10 mismatch");
+
+        // --- Price ranges ---
+        int queries = 10_000;
+        t0 = System.nanoTime();
+        long hits = 0;
+        for (int i = 0; i < queries; i++) {
+            double min = 1 + rnd.nextInt(99_000) / 100.0;
+            hits += catalog.inPriceRange(min, min + 5).size();
+        }
+        double rangeUs = (System.nanoTime() - t0) / 1e3 / queries;
+        t0 = System.nanoTime();
+        long scanHits = 0;
+        for (int i = 0; i < scans; i++) {
+            double min = 1 + rnd.nextInt(99_000) / 100.0;
+            for (Product p : plain) if (p.price >= min && p.price <= min + 5) scanHits++;
+        }
+        double rangeScanMs = (System.nanoTime() - t0) / 1e6 / scans;
+        System.out.printf("Price range ($5 wide, ~%d hits): tree %.1f us | full scan %.1f ms%n",
+                hits / queries, rangeUs, rangeScanMs);
+
+        // --- Cart ---
+        int lines = 1_000, ops = 200_000;
+        Cart cart = new Cart();
+        List<Product> list = new ArrayList<>();
+        for (int i = 0; i < lines; i++) {
+            cart.add(plain.get(i));
+            list.add(plain.get(i));
+        }
+        t0 = System.nanoTime();
+        double sink = 0;
+        for (int i = 0; i < ops; i++) {
+            int id = rnd.nextInt(lines);
+            cart.removeAll(id);
+            cart.add(plain.get(id));
+            sink += cart.total();
+        }
+        double cartNs = (System.nanoTime() - t0) / (double) ops;
+        int listOps = ops / 20;
+        t0 = System.nanoTime();
+        for (int i = 0; i < listOps; i++) {
+            int id = rnd.nextInt(lines);
+            list.removeIf(p -> p.id == id);
+            list.add(plain.get(id));
+            double sum = 0;
+            for (Product p : list) sum += p.price;
+            sink += sum;
+        }
+        double listNs = (System.nanoTime() - t0) / (double) listOps;
+        System.out.printf("Cart remove+add+total (%d lines): quantity map %.0f ns | ArrayList %.0f ns (%.0fx)%n",
+                lines, cartNs, listNs, listNs / cartNs);
+
+        System.out.println("(checksum " + (checksum + scanHits + (long) sink) + ")");
+    }
+
+    // What a correct top-k over a plain collection costs: one pass with a k-sized min-heap
+    static List<Product> scanTop(List<Product> products, int k) {
+        PriorityQueue<Product> heap = new PriorityQueue<>(k + 1, (a, b) ->
+                a.popularity != b.popularity ? Integer.compare(a.popularity, b.popularity) : Integer.compare(b.id, a.id));
+        for (Product p : products) {
+            heap.add(p);
+            if (heap.size() > k) heap.poll();
+        }
+        List<Product> top = new ArrayList<>(heap);
+        top.sort((a, b) -> a.popularity != b.popularity ? Integer.compare(b.popularity, a.popularity) : Integer.compare(a.id, b.id));
+        return top;
+    }
+}
@@ -1,3 +1,4 @@
+package com.example.shop;
 
 import java.util.*;
 
@@ -21,17 +22,17 @@ class Product {
 }
 
 public class ShoppingCart {
-    static ArrayList<Product> cart = new ArrayList<>();
-    static HashMap<Integer, Product> catalog = new HashMap<>();
-    static HashMap<String, Double> coupons = new HashMap<>();
+    static Cart cart = new Cart();
+    static ProductCatalog catalog = new ProductCatalog();
+    static PricingEngine coupons = new PricingEngine();
     static Queue<Product> wishlist = new LinkedList<>();
-    static PriorityQueue<Product> recommendations = new PriorityQueue<>((a, b) -> b.popularity - a.popularity);
 
     // Add product to cart
     public static void addToCart(int id) {
-        if (catalog.containsKey(id)) {
-            cart.add(catalog.get(id));
-            System.out.println(catalog.get(id).name + " added to cart!");
+        Product p = catalog.get(id);
+        if (p != null) {
+            cart.add(p);
+            System.out.println(p.name + " added to cart!");
         } else {
             System.out.println("Product not found!");
         }
@@ -39,8 +40,11 @@ public class ShoppingCart {
 
     // Remove product
     public static void removeFromCart(int id) {
-        cart.removeIf(p -> p.id == id);
-        System.out.println("Product removed from cart!");
+        if (cart.removeAll(id) > 0) {
+            System.out.println("Product removed from cart!");
+        } else {
+            System.out.println("Product not in cart!");
+        }
     }
 
     // View cart
@@ -48,61 +52,62 @@ public class ShoppingCart {
         if(cart.isEmpty()) {
             System.out.println("Cart is empty!");
         } else {
-            for(Product p : cart) {
+            cart.forEach((p, qty) -> {
                 p.display();
-            }
+                if (qty > 1) System.out.println("   x" + qty);
+            });
         }
     }
 
-    // Sort cart by price
+    // Show cart sorted by price
     public static void sortCartByPrice() {
-        cart.sort((a, b) -> Double.compare(a.price, b.price));
+        List<Product> items = cart.products();
+        items.sort((a, b) -> Double.compare(a.price, b.price));
         System.out.println("Cart sorted by price!");
-        viewCart();
+        for (Product p : items) p.display();
     }
 
     // Apply coupon
     public static void applyCoupon(String code) {
-        double total = calculateTotal();
-        if(coupons.containsKey(code)) {
-            double discount = coupons.get(code);
-            total -= total * discount;
-            System.out.println("Coupon applied! Final Price: $" + total);
+        if(coupons.isValid(code)) {
+            long total = coupons.checkout(cart.totalCents(), coupons.maskOf(code));
+            System.out.println("Coupon applied! Final Price: $" + PricingEngine.format(total));
         } else {
             System.out.println("Invalid coupon!");
         }
     }
 
-    // Calculate total
+    // Calculate total (kept up to date by the cart)
     public static double calculateTotal() {
-        double sum = 0;
-        for(Product p : cart) sum += p.price;
-        return sum;
+        return cart.total();
     }
 
     // Show recommendations
     public static void showRecommendations() {
         System.out.println("Recommended Products:");
-        int count = 0;
-        for(Product p : recommendations) {
-            if(count++ >= 3) break;
+        for(Product p : catalog.topByPopularity(3)) {
+            p.display();
+        }
+    }
+
+    // Show products in a price range, cheapest first
+    public static void showPriceRange(double min, double max) {
+        System.out.println("Products from $" + min + " to $" + max + ":");
+        for(Product p : catalog.inPriceRange(min, max)) {
             p.display();
         }
     }
 
     public static void main(String[] args) {
         // Product Catalog
-        catalog.put(1, new Product(1, "Laptop", 800, 95));
-        catalog.put(2, new Product(2, "Phone", 500, 90));
-        catalog.put(3, new Product(3, "Headphones", 100, 85));
-        catalog.put(4, new Product(4, "Smartwatch", 200, 80));
+        catalog.put(new Product(1, "Laptop", 800, 95));
+        catalog.put(new Product(2, "Phone", 500, 90));
+        catalog.put(new Product(3, "Headphones", 100, 85));
+        catalog.put(new Product(4, "Smartwatch", 200, 80));
 
         // Coupons
-        coupons.put("NEW10", 0.10);
-        coupons.put("SALE20", 0.20);
-
-        // Recommendations
-        recommendations.addAll(catalog.values());
+        coupons.addPercentOff("NEW10", 1000);
+        coupons.addPercentOff("SALE20", 2000);
 
         // Demo
         addToCart(1);
@@ -116,5 +121,6 @@ public class ShoppingCart {
         applyCoupon("NEW10");
 
         showRecommendations();
+        showPriceRange(150, 600);
     }
 }
@@ -0,0 +1,245 @@
+package com.example.trafficapi;
+
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.scheduling.annotation.EnableScheduling;
+import org.springframework.scheduling.annotation.Scheduled;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.hacktoberfest2025.metrics.Metrics;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Paths;
+import java.util.*;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Main Application
+@SpringBootApplication
+@RestController
+@EnableScheduling
+public class SmartTrafficApiApplication implements DisposableBean {
+
+    public static void main(String[] args) {
+        SpringApplication.run(SmartTrafficApiApplication.class, args);
+    }
+
+    // --- Models ---
+    // One element of a POST /vehicles batch
+    static class VehicleRequest {
+        public String type;
+        public int priority = 1;
+    }
+
+    // 'error' is set when the body stopped at a bad element; the 'accepted' elements before it
+    // were enqueued and are durable
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    static class BatchResult {
+        public final int accepted;
+        public final int firstId;
+        public final int lastId;
+        public final String error;
+
+        BatchResult(int accepted, int firstId, int lastId, String error) {
+            this.accepted = accepted;
+            this.firstId = firstId;
+            this.lastId = lastId;
+            this.error = error;
+        }
+    }
+
+    // --- Signals ---
+    private TrafficSignal signalA = new TrafficSignal("Signal A", 0);
+    private TrafficSignal signalB = new TrafficSignal("Signal B", 1);
+    private AtomicInteger vehicleIdCounter = new AtomicInteger(1);
+
+    private TrafficSignal[] signals = new TrafficSignal[]{signalA, signalB};
+
+    // --- Durability ---
+    // Every enqueue/pass is written to a WAL and requests are acknowledged only once their
+    // records are fsynced. On startup the queues are rebuilt from the latest snapshot + log tail.
+    private final TrafficWal wal;
+
+    public SmartTrafficApiApplication() throws IOException {
+        wal = TrafficWal.open(Paths.get(System.getProperty("traffic.wal.dir", "traffic-wal")), signals.length);
+        TrafficWal.RecoveredState state = wal.recovered();
+        for (TrafficSignal s : signals) {
+            s.restore(state);
+            s.wal = wal;
+        }
+        vehicleIdCounter.set(state.nextVehicleId);
+    }
+
+    @Override
+    public void destroy() throws IOException {
+        wal.close();
+    }
+
+    // Large NDJSON streams are enqueued in chunks of this many vehicles
+    private static final int BATCH_CHUNK = 1024;
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    // --- Cached status ---
+    // GET /signals is polled by dashboards far more often than the queues change, so the encoded
+    // response is rebuilt at most once per STATUS_MAX_AGE_MS and only when some signal changed.
+    // Every other poll just returns the cached bytes without touching the queues.
+    private static final int STATUS_TOP_N = 10;
+    private static final int MAX_PAGE_SIZE = 100;
+    private static final int MAX_PAGE_OFFSET = 1000;
+    private static final long STATUS_MAX_AGE_MS = 250;
+    private final AtomicBoolean statusRefreshing = new AtomicBoolean(false);
+    private volatile byte[] statusJson;
+    private volatile long statusVersion = -1;
+    private volatile long statusBuiltAt;
+
+    // --- API Endpoints ---
+    @PostMapping("/vehicle")
+    public ResponseEntity<String> addVehicle(@RequestParam String type, @RequestParam(defaultValue="1") int priority)
+            throws IOException, InterruptedException {
+        int id = vehicleIdCounter.getAndIncrement();
+        Vehicle v = new Vehicle(id,type,priority);
+        // Randomly assign to a signal
+        TrafficSignal s = signals[ThreadLocalRandom.current().nextInt(signals.length)];
+        wal.awaitDurable(s.addVehicle(v));
+        return ResponseEntity.ok("Vehicle " + id + " added to " + s.name);
+    }
+
+    @PostMapping("/emergency")
+    public ResponseEntity<String> addEmergencyVehicle(@RequestParam String type) throws IOException, InterruptedException {
+        return addVehicle(type,5); // Emergency always priority 5
+    }
+
+    // Bulk ingestion: accepts a JSON array or an NDJSON stream of {"type": ..., "priority": ...}.
+    // The body is streamed, so a bad element (no type, or malformed JSON) ends the batch where it
+    // stands: everything before it is enqueued and made durable, and the answer says how far it
+    // got. 400 if not even the first element was usable.
+    @PostMapping(value = "/vehicles", consumes = {MediaType.APPLICATION_JSON_VALUE, "application/x-ndjson"})
+    public ResponseEntity<BatchResult> addVehicles(InputStream body) throws IOException, InterruptedException {
+        int accepted = 0, firstId = -1, lastId = -1;
+        long lastSeq = 0;
+        String error = null;
+        List<VehicleRequest> chunk = new ArrayList<>(BATCH_CHUNK);
+        try (MappingIterator<VehicleRequest> it = mapper.readerFor(VehicleRequest.class).readValues(body)) {
+            boolean end = false;
+            while (!end) {
+                VehicleRequest r = null;
+                try {
+                    if (it.hasNextValue()) r = it.nextValue();
+                } catch (JsonProcessingException e) {
+                    error = "element " + (accepted + chunk.size()) + ": " + e.getOriginalMessage();
+                }
+                if (r != null && r.type == null) error = "element " + (accepted + chunk.size()) + ": missing type";
+                end = r == null || error != null;
+                if (!end) chunk.add(r);
+                if (chunk.size() == BATCH_CHUNK || (end && !chunk.isEmpty())) {
+                    int first = vehicleIdCounter.getAndAdd(chunk.size());
+                    lastSeq = Math.max(lastSeq, enqueueChunk(chunk, first));
+                    if (firstId < 0) firstId = first;
+                    lastId = first + chunk.size() - 1;
+                    accepted += chunk.size();
+                    chunk.clear();
+                }
+            }
+        }
+        wal.awaitDurable(lastSeq);
+        BatchResult result = new BatchResult(accepted, firstId, lastId, error);
+        if (error != null && accepted == 0) return ResponseEntity.badRequest().body(result);
+        return ResponseEntity.ok(result);
+    }
+
+    // Buckets a chunk (whose ids were reserved at once) per signal and hands each signal its
+    // bucket in a single call. Returns the last WAL sequence number written.
+    private long enqueueChunk(List<VehicleRequest> chunk, int firstId) {
+        List<List<Vehicle>> buckets = new ArrayList<>(signals.length);
+        for (int i = 0; i < signals.length; i++) buckets.add(new ArrayList<>(chunk.size() / signals.length + 1));
+        ThreadLocalRandom rnd = ThreadLocalRandom.current();
+        for (int i = 0; i < chunk.size(); i++) {
+            VehicleRequest r = chunk.get(i);
+            buckets.get(rnd.nextInt(signals.length)).add(new Vehicle(firstId + i, r.type, r.priority));
+        }
+        long lastSeq = 0;
+        for (int i = 0; i < signals.length; i++) lastSeq = Math.max(lastSeq, signals[i].addVehicles(buckets.get(i)));
+        return lastSeq;
+    }
+
+    @GetMapping(value = "/signals", produces = MediaType.APPLICATION_JSON_VALUE)
+    public byte[] getSignals() throws JsonProcessingException {
+        byte[] json = statusJson;
+        long version = currentVersion();
+        if (json == null) return refreshStatus(version, true);
+        if (version != statusVersion && System.currentTimeMillis() - statusBuiltAt >= STATUS_MAX_AGE_MS) {
+            // Only one poller rebuilds; the rest keep serving the previous snapshot meanwhile
+            byte[] fresh = refreshStatus(version, false);
+            if (fresh != null) return fresh;
+        }
+        return json;
+    }
+
+    // Prometheus scrape of queue rates, waits and lengths
+    @GetMapping(value = "/metrics", produces = "text/plain; version=0.0.4; charset=utf-8")
+    public String metrics() {
+        return Metrics.global().scrape();
+    }
+
+    // One page of a signal's queue in service order, e.g. /signals/0/queue?offset=20&limit=20
+    @GetMapping("/signals/{index}/queue")
+    public ResponseEntity<List<Vehicle>> getSignalQueue(@PathVariable int index,
+                                                        @RequestParam(defaultValue="0") int offset,
+                                                        @RequestParam(defaultValue="20") int limit) {
+        if (index < 0 || index >= signals.length || offset < 0 || offset > MAX_PAGE_OFFSET) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(signals[index].nextVehicles(offset, Math.min(limit, MAX_PAGE_SIZE)));
+    }
+
+    private long currentVersion() {
+        long version = 0;
+        for (TrafficSignal s : signals) version += s.version.get();
+        return version;
+    }
+
+    private byte[] refreshStatus(long version, boolean force) throws JsonProcessingException {
+        if (!statusRefreshing.compareAndSet(false, true)) {
+            return force ? encodeStatus() : null;
+        }
+        try {
+            byte[] json = encodeStatus();
+            statusVersion = version;
+            statusBuiltAt = System.currentTimeMillis();
+            statusJson = json;
+            return json;
+        } finally {
+            statusRefreshing.set(false);
+        }
+    }
+
+    private byte[] encodeStatus() throws JsonProcessingException {
+        List<SignalStatus> list = new ArrayList<>(signals.length);
+        for(TrafficSignal s : signals){
+            list.add(s.getStatus(STATUS_TOP_N));
+        }
+        return mapper.writeValueAsBytes(list);
+    }
+
+    // --- Scheduled processing of vehicles every 1 second ---
+    @Scheduled(fixedRate = 1000)
+    public void processSignals() {
+        for(TrafficSignal s : signals){
+            s.processNextVehicle();
+        }
+    }
+
+    // --- Periodic WAL snapshot so recovery only replays the last few seconds of log ---
+    @Scheduled(fixedRate = 30000)
+    public void snapshotQueues() throws IOException {
+        TrafficSignal.snapshot(wal, signals, vehicleIdCounter);
+    }
+}
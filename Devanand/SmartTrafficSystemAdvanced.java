@@ -0,0 +1,278 @@
+package com.example.trafficsim;
+
+import com.example.trafficapi.TrafficWal;
+import com.hacktoberfest2025.metrics.Metrics;
+
+import java.io.*;
+import java.nio.file.Paths;
+import java.text.SimpleDateFormat;
+import java.util.*;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.IntSupplier;
+
+// Vehicle Class
+class Vehicle implements Serializable {
+    String type;   // Car, Bus, Ambulance, FireTruck
+    int priority;  // Higher number = higher priority
+    int id;
+    long arrivalTime;
+
+    Vehicle(int id, String type, int priority) {
+        this.id = id;
+        this.type = type;
+        this.priority = priority;
+        this.arrivalTime = System.currentTimeMillis();
+    }
+
+    boolean isEmergency() {
+        return type.equalsIgnoreCase("Ambulance") || type.equalsIgnoreCase("FireTruck") || type.equalsIgnoreCase("Police");
+    }
+
+    public String toString() {
+        return "Vehicle[ID=" + id + ", Type=" + type + ", Priority=" + priority + "]";
+    }
+}
+
+// Traffic Signal (Runnable for Multithreading)
+// A WAL record and the queue change it describes are made together under the signal's lock,
+// so the log never shows a vehicle passing before it arrived and a snapshot never sees half of
+// an enqueue or pass.
+class TrafficSignal implements Runnable {
+    String name;
+    PriorityBlockingQueue<Vehicle> queue;
+    int totalPassed = 0;
+    int emergencyCount = 0;
+    int index;
+    TrafficWal wal;
+    final ReentrantLock lock = new ReentrantLock();
+    // Same series as the traffic API, so one dashboard covers both
+    Metrics.Counter enqueued;
+    Metrics.Counter served;
+    Metrics.Histogram waitTime;
+
+    TrafficSignal(String name, int index, TrafficWal wal) {
+        this.name = name;
+        this.index = index;
+        this.wal = wal;
+        this.queue = new PriorityBlockingQueue<>(10, (a, b) -> b.priority - a.priority);
+        Metrics m = Metrics.global();
+        enqueued = m.counter("traffic_vehicles_enqueued_total", "Vehicles added to a signal queue.", "signal", name);
+        served = m.counter("traffic_vehicles_served_total", "Vehicles that passed a signal.", "signal", name);
+        waitTime = m.histogram("traffic_wait_duration_seconds", "Time from arrival to passing the signal.", "signal", name);
+        m.gauge("traffic_queue_length", "Vehicles waiting at a signal.", queue::size, "signal", name);
+    }
+
+    public void addVehicle(Vehicle v) {
+        lock.lock();
+        try {
+            walAppend(TrafficWal.ENQUEUE, v);
+            queue.add(v);
+        } finally {
+            lock.unlock();
+        }
+        enqueued.inc();
+        logEvent(v + " entered at " + name);
+    }
+
+    private void walAppend(byte op, Vehicle v) {
+        wal.append(op, index, v.isEmergency() ? TrafficWal.FLAG_EMERGENCY : 0, v.id, v.priority, v.arrivalTime, v.type);
+    }
+
+    // Rebuilds this signal's queue and counters from what the WAL recovered
+    void restore(TrafficWal.RecoveredState state) {
+        for (TrafficWal.Entry e : state.queues.get(index)) {
+            Vehicle v = new Vehicle(e.vehicleId, e.type, e.priority);
+            v.arrivalTime = e.arrivalTime;
+            queue.add(v);
+        }
+        totalPassed = state.totalPassed[index];
+        emergencyCount = state.emergencyCount[index];
+    }
+
+    private void logEvent(String msg) {
+        String timestamp = new SimpleDateFormat("HH:mm:ss").format(new Date());
+        System.out.println("[" + timestamp + "] " + msg);
+        try (FileWriter fw = new FileWriter("traffic_log.txt", true)) {
+            fw.write("[" + timestamp + "] " + msg + "\n");
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    @Override
+    public void run() {
+        try {
+            while (!Thread.currentThread().isInterrupted()) {
+                Vehicle v;
+                lock.lock();
+                try {
+                    v = queue.poll();
+                    if (v != null) {
+                        walAppend(TrafficWal.PASS, v);
+                        totalPassed++;
+                        if(v.isEmergency()) {
+                            emergencyCount++;
+                        }
+                    }
+                } finally {
+                    lock.unlock();
+                }
+                if (v != null) {
+                    long waitMillis = System.currentTimeMillis() - v.arrivalTime;
+                    served.inc();
+                    this.waitTime.record(waitMillis * 1_000_000L);
+                    long waitTime = waitMillis/1000;
+                    logEvent(name + " -> " + v + " passed the signal after " + waitTime + "s wait");
+                    // Dynamic sleep: higher priority passes faster
+                    Thread.sleep(Math.max(200, 1000 - v.priority*150));
+                } else {
+                    logEvent(name + " is EMPTY");
+                    Thread.sleep(1500);
+                }
+            }
+        } catch (InterruptedException e) {
+            logEvent(name + " stopped.");
+        }
+    }
+
+    public void printStats() {
+        System.out.println(name + " Stats: Total Passed=" + totalPassed + ", Emergency Vehicles=" + emergencyCount);
+    }
+}
+
+// Vehicle Generator Thread
+class VehicleGenerator implements Runnable {
+    TrafficSignal[] signals;
+    Random rand = new Random();
+    volatile int vehicleId;   // read by the snapshotter
+
+    VehicleGenerator(TrafficSignal[] signals, int firstId) {
+        this.signals = signals;
+        this.vehicleId = firstId;
+    }
+
+    @Override
+    public void run() {
+        String[] types = {"Car", "Bus", "Ambulance", "FireTruck"};
+        int[] priorities = {1, 2, 5, 4};
+        try {
+            while (true) {
+                Thread.sleep(rand.nextInt(3000) + 1000);
+                int idx = rand.nextInt(signals.length);
+                int typeIdx = rand.nextInt(types.length);
+                Vehicle v = new Vehicle(vehicleId++, types[typeIdx], priorities[typeIdx]);
+                signals[idx].addVehicle(v);
+            }
+        } catch (InterruptedException e) {
+            System.out.println("VehicleGenerator stopped.");
+        }
+    }
+}
+
+// Main Class
+// With -Dmetrics.port=N queue rates and waits are served at http://127.0.0.1:N/metrics
+public class SmartTrafficSystemAdvanced {
+    // The WAL is snapshotted this often (when it has grown), so it is trimmed while the
+    // simulation runs and recovery only replays the records since the last snapshot
+    static final long SNAPSHOT_INTERVAL_MS = 5000;
+
+    public static void main(String[] args) throws Exception {
+        Integer metricsPort = Integer.getInteger("metrics.port");
+        com.sun.net.httpserver.HttpServer metricsServer = metricsPort == null ? null : Metrics.global().serve(metricsPort);
+        // Queued vehicles survive restarts: replay the WAL before the signals start
+        TrafficWal wal = TrafficWal.open(Paths.get("traffic-wal-sim"), 2);
+        TrafficWal.RecoveredState state = wal.recovered();
+        TrafficSignal signalA = new TrafficSignal("Signal A", 0, wal);
+        TrafficSignal signalB = new TrafficSignal("Signal B", 1, wal);
+        signalA.restore(state);
+        signalB.restore(state);
+        System.out.println("Recovered " + (signalA.queue.size() + signalB.queue.size())
+                + " queued vehicles (" + state.replayedRecords + " log records replayed)");
+
+        Thread t1 = new Thread(signalA);
+        Thread t2 = new Thread(signalB);
+        t1.start();
+        t2.start();
+
+        TrafficSignal[] signals = {signalA, signalB};
+        VehicleGenerator vehicleGenerator = new VehicleGenerator(signals, Math.max(10, state.nextVehicleId));
+        Thread generator = new Thread(vehicleGenerator);
+        generator.start();
+
+        Thread snapshotter = new Thread(() -> {
+            long snapshotSeq = state.lastSeq;
+            try {
+                while (true) {
+                    Thread.sleep(SNAPSHOT_INTERVAL_MS);
+                    if (wal.lastSeq() == snapshotSeq) continue;
+                    try {
+                        snapshotSeq = snapshot(wal, signals, () -> vehicleGenerator.vehicleId);
+                    } catch (IOException e) {
+                        e.printStackTrace();
+                    }
+                }
+            } catch (InterruptedException e) {
+                // stopping
+            }
+        }, "wal-snapshotter");
+        snapshotter.start();
+
+        // Add some initial vehicles on a fresh start
+        if (state.lastSeq == 0) {
+            signalA.addVehicle(new Vehicle(1, "Car", 1));
+            signalA.addVehicle(new Vehicle(2, "Ambulance", 5));
+            signalB.addVehicle(new Vehicle(3, "Bus", 2));
+            signalB.addVehicle(new Vehicle(4, "Car", 1));
+        }
+
+        // Run for 20 seconds then shutdown
+        Thread.sleep(20000);
+        t1.interrupt();
+        t2.interrupt();
+        generator.interrupt();
+        snapshotter.interrupt();
+
+        t1.join();
+        t2.join();
+        generator.join();
+        snapshotter.join();
+
+        // Snapshot what is still queued so the next run replays nothing
+        snapshot(wal, signals, () -> vehicleGenerator.vehicleId);
+        wal.close();
+
+        // Print final stats
+        signalA.printStats();
+        signalB.printStats();
+        if (metricsServer != null) metricsServer.stop(0);
+    }
+
+    // Snapshots all signals at one WAL position and returns it. Every signal's lock is held while
+    // the position, queues, counters and next vehicle id are read, so the snapshot reflects
+    // exactly the records up to that position. The file is written after the locks are released.
+    static long snapshot(TrafficWal wal, TrafficSignal[] signals, IntSupplier nextVehicleId) throws IOException {
+        long upToSeq;
+        int nextId;
+        List<TrafficWal.Entry> queued = new ArrayList<>();
+        int[] passed = new int[signals.length];
+        int[] emergency = new int[signals.length];
+        for (TrafficSignal s : signals) s.lock.lock();
+        try {
+            upToSeq = wal.lastSeq();
+            nextId = nextVehicleId.getAsInt();
+            for (TrafficSignal s : signals) {
+                for (Vehicle v : s.queue) {
+                    queued.add(new TrafficWal.Entry(TrafficWal.ENQUEUE, s.index,
+                            v.isEmergency() ? TrafficWal.FLAG_EMERGENCY : 0, v.id, v.priority, v.arrivalTime, v.type));
+                }
+                passed[s.index] = s.totalPassed;
+                emergency[s.index] = s.emergencyCount;
+            }
+        } finally {
+            for (int i = signals.length - 1; i >= 0; i--) signals[i].lock.unlock();
+        }
+        wal.snapshot(upToSeq, queued, passed, emergency, nextId);
+        return upToSeq;
+    }
+}
@@ -0,0 +1,97 @@
+package com.example.trafficapi;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+// Load generator for the Smart Traffic Management API (start the Spring app first).
+// Runs an ingest-only phase and then the same ingest load with dashboard pollers hammering
+// GET /signals, and prints requests/s and vehicles/s for both so the cost of polling is visible.
+// With batchSize > 1 the ingest threads POST JSON arrays to /vehicles instead of single
+// vehicles to /vehicle.
+//
+// Usage: java TrafficApiLoadTest [baseUrl] [seconds] [ingestThreads] [pollThreads] [batchSize]
+public class TrafficApiLoadTest {
+
+    static final HttpClient client = HttpClient.newHttpClient();
+
+    public static void main(String[] args) throws Exception {
+        String baseUrl = args.length > 0 ? args[0] : "http://localhost:8080";
+        int seconds = args.length > 1 ? Integer.parseInt(args[1]) : 10;
+        int ingestThreads = args.length > 2 ? Integer.parseInt(args[2]) : 4;
+        int pollThreads = args.length > 3 ? Integer.parseInt(args[3]) : 8;
+        int batchSize = args.length > 4 ? Integer.parseInt(args[4]) : 1;
+
+        System.out.println("Target: " + baseUrl + " | " + seconds + "s per phase | "
+                + ingestThreads + " ingest threads | " + pollThreads + " poll threads | batch " + batchSize);
+
+        double baseline = runPhase(baseUrl, seconds, ingestThreads, 0, batchSize);
+        double withPolling = runPhase(baseUrl, seconds, ingestThreads, pollThreads, batchSize);
+        System.out.printf("Ingest throughput change under polling: %+.1f%%%n",
+                (withPolling - baseline) * 100.0 / baseline);
+    }
+
+    static double runPhase(String baseUrl, int seconds, int ingestThreads, int pollThreads, int batchSize) throws Exception {
+        AtomicBoolean running = new AtomicBoolean(true);
+        LongAdder ingestRequests = new LongAdder();
+        LongAdder polls = new LongAdder();
+        LongAdder errors = new LongAdder();
+
+        HttpRequest ingest = batchSize > 1 ? batchRequest(baseUrl, batchSize)
+                : HttpRequest.newBuilder(URI.create(baseUrl + "/vehicle?type=Car&priority=1"))
+                        .POST(HttpRequest.BodyPublishers.noBody()).build();
+        HttpRequest getSignals = HttpRequest.newBuilder(URI.create(baseUrl + "/signals")).GET().build();
+
+        List<Thread> threads = new ArrayList<>();
+        for (int i = 0; i < ingestThreads; i++) {
+            threads.add(new Thread(() -> loop(running, ingest, ingestRequests, errors)));
+        }
+        for (int i = 0; i < pollThreads; i++) {
+            threads.add(new Thread(() -> loop(running, getSignals, polls, errors)));
+        }
+
+        long start = System.nanoTime();
+        threads.forEach(Thread::start);
+        Thread.sleep(seconds * 1000L);
+        running.set(false);
+        for (Thread t : threads) t.join();
+        double elapsed = (System.nanoTime() - start) / 1e9;
+
+        double requestsPerSec = ingestRequests.sum() / elapsed;
+        double vehiclesPerSec = requestsPerSec * batchSize;
+        System.out.printf("[%d pollers] requests/s=%.0f vehicles/s=%.0f polls/s=%.0f errors=%d%n",
+                pollThreads, requestsPerSec, vehiclesPerSec, polls.sum() / elapsed, errors.sum());
+        return vehiclesPerSec;
+    }
+
+    static HttpRequest batchRequest(String baseUrl, int batchSize) {
+        String[] types = {"Car", "Bus", "Ambulance", "FireTruck"};
+        int[] priorities = {1, 2, 5, 4};
+        StringBuilder json = new StringBuilder("[");
+        for (int i = 0; i < batchSize; i++) {
+            int t = i % types.length;
+            if (i > 0) json.append(',');
+            json.append("{\"type\":\"").append(types[t]).append("\",\"priority\":").append(priorities[t]).append('}');
+        }
+        json.append(']');
+        return HttpRequest.newBuilder(URI.create(baseUrl + "/vehicles"))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(json.toString())).build();
+    }
+
+    static void loop(AtomicBoolean running, HttpRequest request, LongAdder ok, LongAdder errors) {
+        while (running.get()) {
+            try {
+                HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+                if (response.statusCode() == 200) ok.increment(); else errors.increment();
+            } catch (Exception e) {
+                errors.increment();
+            }
+        }
+    }
+}
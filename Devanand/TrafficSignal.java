@@ -0,0 +1,320 @@
+package com.example.trafficapi;
+
+import com.hacktoberfest2025.metrics.Metrics;
+
+import java.io.IOException;
+import java.util.*;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+// Signal queues of the traffic API. Kept apart from SmartTrafficApiApplication so they can be
+// benchmarked and tested without starting Spring.
+
+// --- Models ---
+class Vehicle {
+    public int id;
+    public String type;
+    public int priority;
+    public long arrivalTime;
+
+    Vehicle(int id, String type, int priority) {
+        this.id = id;
+        this.type = type;
+        this.priority = priority;
+        this.arrivalTime = System.currentTimeMillis();
+    }
+
+    boolean isEmergency() {
+        return type.equalsIgnoreCase("Ambulance") || type.equalsIgnoreCase("FireTruck") || type.equalsIgnoreCase("Police");
+    }
+
+    @Override
+    public String toString() {
+        return "Vehicle[ID=" + id + ", Type=" + type + ", Priority=" + priority + "]";
+    }
+}
+
+// Read-only view of a signal served by GET /signals: counters plus the first few vehicles in line
+class SignalStatus {
+    public final String signal;
+    public final int queueSize;
+    public final int totalPassed;
+    public final int emergencyCount;
+    public final List<Vehicle> nextVehicles;
+
+    SignalStatus(String signal, int queueSize, int totalPassed, int emergencyCount, List<Vehicle> nextVehicles) {
+        this.signal = signal;
+        this.queueSize = queueSize;
+        this.totalPassed = totalPassed;
+        this.emergencyCount = emergencyCount;
+        this.nextVehicles = nextVehicles;
+    }
+}
+
+// --- Event log ---
+// Request threads only enqueue; a single daemon thread formats and prints in batches, so
+// ingest never serialises on System.out. If the buffer fills up, events are dropped and
+// counted instead of blocking the caller.
+class EventLog {
+    private static final int CAPACITY = 8192;
+
+    // The log the API's signals print to; its thread starts on first use
+    static final EventLog SHARED = new EventLog();
+
+    static class Entry {
+        final long time;
+        final String msg;
+        Entry(long time, String msg) { this.time = time; this.msg = msg; }
+    }
+
+    private final BlockingQueue<Entry> pending = new ArrayBlockingQueue<>(CAPACITY);
+    private final AtomicLong dropped = new AtomicLong();
+
+    EventLog() {
+        Thread writer = new Thread(this::drain, "traffic-event-log");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    void log(String msg) {
+        if (!pending.offer(new Entry(System.currentTimeMillis(), msg))) {
+            dropped.incrementAndGet();
+        }
+    }
+
+    private void drain() {
+        List<Entry> batch = new ArrayList<>();
+        StringBuilder out = new StringBuilder();
+        try {
+            while (true) {
+                batch.add(pending.take());
+                pending.drainTo(batch, 255);
+                for (Entry e : batch) {
+                    out.append(new Date(e.time)).append(" - ").append(e.msg).append('\n');
+                }
+                long lost = dropped.getAndSet(0);
+                if (lost > 0) out.append(lost).append(" log events dropped\n");
+                System.out.print(out);
+                out.setLength(0);
+                batch.clear();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
+
+// A WAL record and the queue/counter change it describes are made together under the signal's
+// lock, so the log order matches the order of state changes and a snapshot never sees half of
+// an enqueue or pass.
+//
+// The queue is a skip list in service order (highest priority first, then arrival), so the
+// status endpoints read the first offset+limit vehicles without the lock and without visiting
+// the rest of the queue. Its length is counted separately, as the skip list's size() walks it.
+class TrafficSignal {
+    // Only every Nth regular arrival is logged; emergency vehicles are always logged
+    static final int LOG_SAMPLE_EVERY = 100;
+
+    // Position in the queue: priority, then the order of arrival at this signal
+    private static final class Ticket implements Comparable<Ticket> {
+        final int priority;
+        final long seq;
+
+        Ticket(int priority, long seq) {
+            this.priority = priority;
+            this.seq = seq;
+        }
+
+        @Override
+        public int compareTo(Ticket o) {
+            if (priority != o.priority) return Integer.compare(o.priority, priority);
+            return Long.compare(seq, o.seq);
+        }
+    }
+
+    public String name;
+    private final ConcurrentSkipListMap<Ticket, Vehicle> queue = new ConcurrentSkipListMap<>();
+    private final AtomicInteger queued = new AtomicInteger();
+    private long arrivalSeq;   // guarded by lock
+    public AtomicInteger totalPassed = new AtomicInteger(0);
+    public AtomicInteger emergencyCount = new AtomicInteger(0);
+    // Bumped on every enqueue/pass so status readers can tell whether their cached view is stale
+    final AtomicLong version = new AtomicLong();
+    private final AtomicLong arrivals = new AtomicLong();
+    final int index;
+    TrafficWal wal;
+    final ReentrantLock lock = new ReentrantLock();
+    private final EventLog eventLog;   // null: no event logging
+    // Process-lifetime rates and waits, exported at /metrics
+    private final Metrics.Counter enqueued;
+    private final Metrics.Counter served;
+    private final Metrics.Counter emergenciesServed;
+    private final Metrics.Histogram waitTime;
+
+    TrafficSignal(String name, int index) {
+        this(name, index, Metrics.global(), EventLog.SHARED);
+    }
+
+    TrafficSignal(String name, int index, Metrics metrics, EventLog eventLog) {
+        this.name = name;
+        this.index = index;
+        this.eventLog = eventLog;
+        enqueued = metrics.counter("traffic_vehicles_enqueued_total", "Vehicles added to a signal queue.", "signal", name);
+        served = metrics.counter("traffic_vehicles_served_total", "Vehicles that passed a signal.", "signal", name);
+        emergenciesServed = metrics.counter("traffic_emergencies_served_total", "Emergency vehicles that passed a signal.", "signal", name);
+        waitTime = metrics.histogram("traffic_wait_duration_seconds", "Time from arrival to passing the signal.", "signal", name);
+        metrics.gauge("traffic_queue_length", "Vehicles waiting at a signal.", queued::get, "signal", name);
+    }
+
+    // Enqueues and logs to the WAL; returns the WAL sequence number to wait on for durability
+    public long addVehicle(Vehicle v) {
+        long seq;
+        lock.lock();
+        try {
+            seq = walAppend(TrafficWal.ENQUEUE, v);
+            enqueue(v);
+        } finally {
+            lock.unlock();
+        }
+        version.incrementAndGet();
+        enqueued.inc();
+        if (v.isEmergency() || arrivals.incrementAndGet() % LOG_SAMPLE_EVERY == 0) {
+            logEvent(v + " entered " + name);
+        }
+        return seq;
+    }
+
+    // Bulk enqueue for batches: one version bump and one log line for the whole group
+    public long addVehicles(List<Vehicle> vs) {
+        if (vs.isEmpty()) return 0;
+        long seq = 0;
+        lock.lock();
+        try {
+            for (Vehicle v : vs) {
+                seq = walAppend(TrafficWal.ENQUEUE, v);
+                enqueue(v);
+            }
+        } finally {
+            lock.unlock();
+        }
+        version.incrementAndGet();
+        arrivals.addAndGet(vs.size());
+        enqueued.add(vs.size());
+        logEvent(vs.size() + " vehicles entered " + name);
+        return seq;
+    }
+
+    // Caller holds the lock
+    private void enqueue(Vehicle v) {
+        queue.put(new Ticket(v.priority, arrivalSeq++), v);
+        queued.incrementAndGet();
+    }
+
+    private long walAppend(byte op, Vehicle v) {
+        if (wal == null) return 0;
+        return wal.append(op, index, v.isEmergency() ? TrafficWal.FLAG_EMERGENCY : 0,
+                v.id, v.priority, v.arrivalTime, v.type);
+    }
+
+    public void logEvent(String msg){
+        if (eventLog != null) eventLog.log(msg);
+    }
+
+    public int queueSize() {
+        return queued.get();
+    }
+
+    public SignalStatus getStatus(int topN) {
+        return new SignalStatus(name, queueSize(), totalPassed.get(), emergencyCount.get(), nextVehicles(0, topN));
+    }
+
+    // Vehicles in the order they will be served, skipping the first 'offset'. Walks only the
+    // first offset+limit entries; vehicles enqueued or served meanwhile may or may not show up.
+    public List<Vehicle> nextVehicles(int offset, int limit) {
+        if (limit <= 0) return Collections.emptyList();
+        List<Vehicle> page = new ArrayList<>(Math.min(limit, 64));
+        int skipped = 0;
+        for (Vehicle v : queue.values()) {
+            if (skipped < offset) {
+                skipped++;
+                continue;
+            }
+            page.add(v);
+            if (page.size() == limit) break;
+        }
+        return page;
+    }
+
+    // All waiting vehicles in service order
+    Collection<Vehicle> queuedVehicles() {
+        return Collections.unmodifiableCollection(queue.values());
+    }
+
+    public void processNextVehicle() {
+        Vehicle v;
+        lock.lock();
+        try {
+            Map.Entry<Ticket, Vehicle> next = queue.pollFirstEntry();
+            if (next == null) return;
+            v = next.getValue();
+            queued.decrementAndGet();
+            walAppend(TrafficWal.PASS, v);
+            totalPassed.incrementAndGet();
+            if (v.isEmergency()) emergencyCount.incrementAndGet();
+        } finally {
+            lock.unlock();
+        }
+        served.inc();
+        waitTime.record((System.currentTimeMillis() - v.arrivalTime) * 1_000_000L);
+        if(v.isEmergency()) emergenciesServed.inc();
+        version.incrementAndGet();
+        logEvent(name + " -> " + v + " passed the signal");
+    }
+
+    // Rebuilds the queue and counters from what the WAL recovered
+    void restore(TrafficWal.RecoveredState state) {
+        lock.lock();
+        try {
+            for (TrafficWal.Entry e : state.queues.get(index)) {
+                Vehicle v = new Vehicle(e.vehicleId, e.type, e.priority);
+                v.arrivalTime = e.arrivalTime;
+                enqueue(v);
+            }
+            totalPassed.set(state.totalPassed[index]);
+            emergencyCount.set(state.emergencyCount[index]);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Snapshots all signals at one WAL position. Every signal's lock is held while the position
+    // and the queues, counters and next vehicle id are read, so the snapshot reflects exactly the
+    // records up to that position. The file is written after the locks are released.
+    static void snapshot(TrafficWal wal, TrafficSignal[] signals, AtomicInteger vehicleIdCounter) throws IOException {
+        long upToSeq;
+        int nextVehicleId;
+        List<TrafficWal.Entry> queued = new ArrayList<>();
+        int[] passed = new int[signals.length];
+        int[] emergency = new int[signals.length];
+        for (TrafficSignal s : signals) s.lock.lock();
+        try {
+            upToSeq = wal.lastSeq();
+            nextVehicleId = vehicleIdCounter.get();
+            for (TrafficSignal s : signals) {
+                for (Vehicle v : s.queue.values()) {
+                    queued.add(new TrafficWal.Entry(TrafficWal.ENQUEUE, s.index,
+                            v.isEmergency() ? TrafficWal.FLAG_EMERGENCY : 0, v.id, v.priority, v.arrivalTime, v.type));
+                }
+                passed[s.index] = s.totalPassed.get();
+                emergency[s.index] = s.emergencyCount.get();
+            }
+        } finally {
+            for (int i = signals.length - 1; i >= 0; i--) signals[i].lock.unlock();
+        }
+        wal.snapshot(upToSeq, queued, passed, emergency, nextVehicleId);
+    }
+}
@@ -0,0 +1,476 @@
+package com.example.trafficapi;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.*;
+import java.util.*;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.zip.CRC32C;
+
+// Append-only write-ahead log of vehicle enqueue/pass events for the traffic signals.
+//
+// Every event is a fixed 40-byte little-endian record guarded by a CRC32C:
+//   [crc:4][op:1][signal:1][flags:1][typeLen:1][vehicleId:4][priority:4][arrivalTime:8][type:16]
+// Records go to segment files named after the sequence number of their first record. A single
+// background thread writes everything appended since its last fsync in one go (group commit),
+// so many concurrent callers share each force(). Periodic snapshots of the queued vehicles
+// let recovery skip whole segments and replay only the tail.
+public final class TrafficWal implements Closeable {
+
+    public static final byte ENQUEUE = 1;
+    public static final byte PASS = 2;
+    public static final byte FLAG_EMERGENCY = 1;
+
+    static final int RECORD_SIZE = 40;
+    static final int TYPE_BYTES = 16;
+    static final long SEGMENT_RECORDS = 1 << 20;   // 40 MB per segment
+    static final int BUFFER_RECORDS = 16 * 1024;
+    static final int READ_CHUNK_RECORDS = 100_000;
+    private static final int SNAPSHOT_MAGIC = 0x54534E50;
+    private static final String SEGMENT_SUFFIX = ".wal";
+    private static final String SNAPSHOT_PREFIX = "snapshot-";
+
+    // A vehicle event as stored in the log or in a snapshot
+    public static final class Entry {
+        public final byte op;
+        public final int signal;
+        public final byte flags;
+        public final int vehicleId;
+        public final int priority;
+        public final long arrivalTime;
+        public final String type;
+
+        public Entry(byte op, int signal, byte flags, int vehicleId, int priority, long arrivalTime, String type) {
+            this.op = op;
+            this.signal = signal;
+            this.flags = flags;
+            this.vehicleId = vehicleId;
+            this.priority = priority;
+            this.arrivalTime = arrivalTime;
+            this.type = type;
+        }
+
+        public boolean isEmergency() { return (flags & FLAG_EMERGENCY) != 0; }
+    }
+
+    // Queues and counters rebuilt by open() from the latest snapshot plus the log tail
+    public static final class RecoveredState {
+        public final List<List<Entry>> queues;
+        public final int[] totalPassed;
+        public final int[] emergencyCount;
+        public final int nextVehicleId;
+        public final long lastSeq;
+        public final long replayedRecords;
+
+        RecoveredState(List<List<Entry>> queues, int[] totalPassed, int[] emergencyCount,
+                       int nextVehicleId, long lastSeq, long replayedRecords) {
+            this.queues = queues;
+            this.totalPassed = totalPassed;
+            this.emergencyCount = emergencyCount;
+            this.nextVehicleId = nextVehicleId;
+            this.lastSeq = lastSeq;
+            this.replayedRecords = replayedRecords;
+        }
+    }
+
+    private final Path dir;
+    private final int signalCount;
+    private RecoveredState recovered;
+
+    // Appenders fill 'pending' under the lock; the flusher swaps it with 'writing' and writes it out
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition hasPending = lock.newCondition();
+    private final Condition hasRoom = lock.newCondition();
+    private final CRC32C appendCrc = new CRC32C();
+    private ByteBuffer pending = newRecordBuffer(BUFFER_RECORDS);
+    private ByteBuffer writing = newRecordBuffer(BUFFER_RECORDS);
+    private long nextSeq;
+    private boolean closed;
+
+    private final Object durableMonitor = new Object();
+    private volatile long durableSeq;
+    private volatile IOException failure;
+
+    // Owned by the flusher thread once the log is open
+    private FileChannel segment;
+    private long segmentFirstSeq;
+    private long segmentRecords;
+    private final Thread flusher;
+
+    private TrafficWal(Path dir, int signalCount) throws IOException {
+        this.dir = dir;
+        this.signalCount = signalCount;
+        Files.createDirectories(dir);
+        recover();
+        flusher = new Thread(this::flushLoop, "traffic-wal-flusher");
+        flusher.setDaemon(true);
+        flusher.start();
+    }
+
+    // Opens (or creates) the log in 'dir' and recovers its state; see recovered()
+    public static TrafficWal open(Path dir, int signalCount) throws IOException {
+        return new TrafficWal(dir, signalCount);
+    }
+
+    public RecoveredState recovered() { return recovered; }
+
+    // Sequence number of the last appended record (durable or not)
+    public long lastSeq() {
+        lock.lock();
+        try {
+            return nextSeq - 1;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public long durableSeq() { return durableSeq; }
+
+    // Buffers one record and returns its sequence number. Pair with awaitDurable() when the
+    // caller must not acknowledge before the event is on disk.
+    public long append(byte op, int signal, byte flags, int vehicleId, int priority, long arrivalTime, String type) {
+        lock.lock();
+        try {
+            while (!closed && pending.remaining() < RECORD_SIZE) {
+                hasRoom.awaitUninterruptibly();
+            }
+            if (closed) throw new IllegalStateException("WAL is closed", failure);
+            boolean wasEmpty = pending.position() == 0;
+            encode(pending, appendCrc, op, signal, flags, vehicleId, priority, arrivalTime, type);
+            if (wasEmpty) hasPending.signal();
+            return nextSeq++;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void awaitDurable(long seq) throws IOException, InterruptedException {
+        if (durableSeq >= seq) return;
+        synchronized (durableMonitor) {
+            while (durableSeq < seq) {
+                if (failure != null) throw failure;
+                durableMonitor.wait();
+            }
+        }
+    }
+
+    // Writes a snapshot of the queued vehicles and counters as of record 'upToSeq', then drops
+    // older snapshots and the segments it fully covers. Recovery applies every record after
+    // upToSeq on top of it, so the state must reflect exactly the records up to upToSeq: callers
+    // stop appending while they read lastSeq() and copy their state (see TrafficSignal.snapshot).
+    public void snapshot(long upToSeq, List<Entry> queued, int[] totalPassed, int[] emergencyCount,
+                         int nextVehicleId) throws IOException {
+        int headerSize = 4 + 8 + 4 + 4 + signalCount * 8 + 4;
+        ByteBuffer buf = ByteBuffer.allocate(headerSize + queued.size() * RECORD_SIZE + 4).order(ByteOrder.LITTLE_ENDIAN);
+        buf.putInt(SNAPSHOT_MAGIC).putLong(upToSeq).putInt(signalCount).putInt(nextVehicleId);
+        for (int i = 0; i < signalCount; i++) buf.putInt(totalPassed[i]).putInt(emergencyCount[i]);
+        buf.putInt(queued.size());
+        CRC32C crc = new CRC32C();
+        for (Entry e : queued) {
+            encode(buf, crc, ENQUEUE, e.signal, e.flags, e.vehicleId, e.priority, e.arrivalTime, e.type);
+        }
+        crc.reset();
+        crc.update(buf.array(), 0, buf.position());
+        buf.putInt((int) crc.getValue());
+        buf.flip();
+
+        Path target = dir.resolve(SNAPSHOT_PREFIX + seqName(upToSeq));
+        Path tmp = dir.resolve(target.getFileName() + ".tmp");
+        try (FileChannel ch = FileChannel.open(tmp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            while (buf.hasRemaining()) ch.write(buf);
+            ch.force(true);
+        }
+        Files.move(tmp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+
+        for (Path p : listFiles(SNAPSHOT_PREFIX, "")) {
+            if (parseSeq(p, SNAPSHOT_PREFIX, "") < upToSeq) Files.deleteIfExists(p);
+        }
+        List<Path> segments = listFiles("", SEGMENT_SUFFIX);
+        for (int i = 0; i + 1 < segments.size(); i++) {
+            if (parseSeq(segments.get(i + 1), "", SEGMENT_SUFFIX) <= upToSeq + 1) Files.deleteIfExists(segments.get(i));
+        }
+    }
+
+    // Flushes everything appended so far and stops the flusher
+    @Override
+    public void close() throws IOException {
+        lock.lock();
+        try {
+            closed = true;
+            hasPending.signalAll();
+            hasRoom.signalAll();
+        } finally {
+            lock.unlock();
+        }
+        try {
+            flusher.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        segment.close();
+        if (failure != null) throw failure;
+    }
+
+    // --- Group commit ---
+
+    private void flushLoop() {
+        while (true) {
+            long upTo;
+            lock.lock();
+            try {
+                while (pending.position() == 0 && !closed) hasPending.awaitUninterruptibly();
+                if (pending.position() == 0) return;
+                ByteBuffer full = pending;
+                pending = writing;
+                writing = full;
+                upTo = nextSeq - 1;
+                hasRoom.signalAll();
+            } finally {
+                lock.unlock();
+            }
+            try {
+                writing.flip();
+                writeRecords(writing);
+                segment.force(false);
+                writing.clear();
+            } catch (IOException e) {
+                fail(e);
+                return;
+            }
+            synchronized (durableMonitor) {
+                durableSeq = upTo;
+                durableMonitor.notifyAll();
+            }
+        }
+    }
+
+    private void writeRecords(ByteBuffer buf) throws IOException {
+        while (buf.hasRemaining()) {
+            if (segmentRecords == SEGMENT_RECORDS) {
+                segment.force(false);
+                segment.close();
+                openSegment(segmentFirstSeq + SEGMENT_RECORDS, 0);
+            }
+            int records = (int) Math.min(buf.remaining() / RECORD_SIZE, SEGMENT_RECORDS - segmentRecords);
+            ByteBuffer slice = buf.duplicate();
+            slice.limit(buf.position() + records * RECORD_SIZE);
+            while (slice.hasRemaining()) segment.write(slice);
+            buf.position(slice.position());
+            segmentRecords += records;
+        }
+    }
+
+    private void fail(IOException e) {
+        failure = e;
+        lock.lock();
+        try {
+            closed = true;
+            hasRoom.signalAll();
+        } finally {
+            lock.unlock();
+        }
+        synchronized (durableMonitor) {
+            durableMonitor.notifyAll();
+        }
+    }
+
+    private void openSegment(long firstSeq, long validRecords) throws IOException {
+        segment = FileChannel.open(dir.resolve(seqName(firstSeq) + SEGMENT_SUFFIX),
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        segment.truncate(validRecords * RECORD_SIZE);
+        segment.position(validRecords * RECORD_SIZE);
+        segmentFirstSeq = firstSeq;
+        segmentRecords = validRecords;
+    }
+
+    // --- Recovery ---
+
+    private void recover() throws IOException {
+        // Insertion order: the snapshot's queues in service order, then the tail in append order,
+        // so vehicles of equal priority are re-enqueued in the order they arrived
+        Map<Integer, Entry> live = new LinkedHashMap<>(1 << 16);
+        int[] passed = new int[signalCount];
+        int[] emergency = new int[signalCount];
+        long snapshotSeq = 0;
+        int nextId = 1;
+
+        List<Path> snapshots = listFiles(SNAPSHOT_PREFIX, "");
+        for (int i = snapshots.size() - 1; i >= 0; i--) {
+            ByteBuffer buf = readSnapshot(snapshots.get(i));
+            if (buf == null) continue;
+            snapshotSeq = buf.getLong();
+            buf.getInt(); // signal count at snapshot time
+            nextId = buf.getInt();
+            for (int s = 0; s < signalCount; s++) {
+                passed[s] = buf.getInt();
+                emergency[s] = buf.getInt();
+            }
+            int count = buf.getInt();
+            for (int r = 0; r < count; r++) {
+                Entry e = decode(buf, buf.position());
+                buf.position(buf.position() + RECORD_SIZE);
+                live.put(e.vehicleId, e);
+            }
+            break;
+        }
+
+        List<Path> segments = listFiles("", SEGMENT_SUFFIX);
+        CRC32C crc = new CRC32C();
+        ByteBuffer chunk = newRecordBuffer(READ_CHUNK_RECORDS);
+        long lastSeq = snapshotSeq;
+        long replayed = 0;
+        long lastFirst = -1, lastValid = 0;
+        for (int i = 0; i < segments.size(); i++) {
+            long first = parseSeq(segments.get(i), "", SEGMENT_SUFFIX);
+            boolean isLast = i == segments.size() - 1;
+            if (!isLast && parseSeq(segments.get(i + 1), "", SEGMENT_SUFFIX) <= snapshotSeq + 1) continue;
+
+            long valid = 0;
+            try (FileChannel ch = FileChannel.open(segments.get(i), StandardOpenOption.READ)) {
+                scan:
+                while (true) {
+                    chunk.clear();
+                    while (chunk.hasRemaining() && ch.read(chunk) > 0) { }
+                    chunk.flip();
+                    if (chunk.remaining() < RECORD_SIZE) break;
+                    for (int pos = 0; pos + RECORD_SIZE <= chunk.limit(); pos += RECORD_SIZE) {
+                        if (!checkRecord(chunk, pos, crc)) {
+                            if (!isLast) throw new IOException("Corrupt WAL record in " + segments.get(i) + " at record " + valid);
+                            break scan; // torn write at the tail: everything from here on is discarded
+                        }
+                        long seq = first + valid++;
+                        if (seq <= snapshotSeq) continue;
+                        replayed++;
+                        int id = chunk.getInt(pos + 8);
+                        if (chunk.get(pos + 4) == ENQUEUE) {
+                            live.put(id, decode(chunk, pos));
+                            if (id >= nextId) nextId = id + 1;
+                        } else if (live.remove(id) != null) {
+                            int signal = chunk.get(pos + 5) & 0xFF;
+                            if (signal < signalCount) {
+                                passed[signal]++;
+                                if ((chunk.get(pos + 6) & FLAG_EMERGENCY) != 0) emergency[signal]++;
+                            }
+                        }
+                    }
+                    if (chunk.limit() % RECORD_SIZE != 0) break;
+                }
+            }
+            lastSeq = Math.max(lastSeq, first + valid - 1);
+            lastFirst = first;
+            lastValid = valid;
+        }
+
+        if (lastFirst >= 0 && lastFirst + lastValid - 1 >= snapshotSeq) {
+            openSegment(lastFirst, lastValid);
+        } else {
+            openSegment(snapshotSeq + 1, 0);
+        }
+        nextSeq = segmentFirstSeq + segmentRecords;
+        durableSeq = nextSeq - 1;
+
+        List<List<Entry>> queues = new ArrayList<>(signalCount);
+        for (int s = 0; s < signalCount; s++) queues.add(new ArrayList<>());
+        for (Entry e : live.values()) {
+            if (e.signal < signalCount) queues.get(e.signal).add(e);
+        }
+        recovered = new RecoveredState(queues, passed, emergency, nextId, lastSeq, replayed);
+    }
+
+    // Returns the snapshot positioned after its magic number, or null if it is missing or damaged
+    private ByteBuffer readSnapshot(Path p) throws IOException {
+        byte[] bytes = Files.readAllBytes(p);
+        if (bytes.length < 8) return null;
+        ByteBuffer buf = ByteBuffer.wrap(bytes).order(ByteOrder.LITTLE_ENDIAN);
+        CRC32C crc = new CRC32C();
+        crc.update(bytes, 0, bytes.length - 4);
+        if (buf.getInt(0) != SNAPSHOT_MAGIC || buf.getInt(bytes.length - 4) != (int) crc.getValue()) return null;
+        buf.position(4);
+        return buf;
+    }
+
+    // --- Record encoding ---
+
+    private static void encode(ByteBuffer buf, CRC32C crc, byte op, int signal, byte flags, int vehicleId,
+                               int priority, long arrivalTime, String type) {
+        int start = buf.position();
+        int len = Math.min(type.length(), TYPE_BYTES);
+        buf.putInt(0).put(op).put((byte) signal).put(flags).put((byte) len)
+           .putInt(vehicleId).putInt(priority).putLong(arrivalTime);
+        for (int i = 0; i < TYPE_BYTES; i++) {
+            char c = i < len ? type.charAt(i) : 0;
+            buf.put((byte) (c < 0x100 ? c : '?'));
+        }
+        crc.reset();
+        crc.update(buf.array(), buf.arrayOffset() + start + 4, RECORD_SIZE - 4);
+        buf.putInt(start, (int) crc.getValue());
+    }
+
+    private static boolean checkRecord(ByteBuffer buf, int pos, CRC32C crc) {
+        crc.reset();
+        crc.update(buf.array(), buf.arrayOffset() + pos + 4, RECORD_SIZE - 4);
+        return buf.getInt(pos) == (int) crc.getValue() && buf.get(pos + 4) != 0;
+    }
+
+    // Vehicle types repeat constantly, so recovery reuses the strings it has already built
+    private final List<String> typeCache = new ArrayList<>();
+
+    private Entry decode(ByteBuffer buf, int pos) {
+        return new Entry(buf.get(pos + 4), buf.get(pos + 5) & 0xFF, buf.get(pos + 6), buf.getInt(pos + 8),
+                buf.getInt(pos + 12), buf.getLong(pos + 16), decodeType(buf, pos));
+    }
+
+    private String decodeType(ByteBuffer buf, int pos) {
+        int len = buf.get(pos + 7);
+        search:
+        for (String cached : typeCache) {
+            if (cached.length() != len) continue;
+            for (int i = 0; i < len; i++) {
+                if (cached.charAt(i) != (char) (buf.get(pos + 24 + i) & 0xFF)) continue search;
+            }
+            return cached;
+        }
+        char[] chars = new char[len];
+        for (int i = 0; i < len; i++) chars[i] = (char) (buf.get(pos + 24 + i) & 0xFF);
+        String type = new String(chars);
+        if (typeCache.size() < 32) typeCache.add(type);
+        return type;
+    }
+
+    private static ByteBuffer newRecordBuffer(int records) {
+        return ByteBuffer.allocate(records * RECORD_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    // --- File naming ---
+
+    private static String seqName(long seq) {
+        return String.format("%020d", seq);
+    }
+
+    private static long parseSeq(Path p, String prefix, String suffix) {
+        String name = p.getFileName().toString();
+        return Long.parseLong(name.substring(prefix.length(), name.length() - suffix.length()));
+    }
+
+    // Files named prefix + 20-digit sequence + suffix, in sequence order
+    private List<Path> listFiles(String prefix, String suffix) throws IOException {
+        List<Path> result = new ArrayList<>();
+        try (DirectoryStream<Path> ds = Files.newDirectoryStream(dir)) {
+            for (Path p : ds) {
+                String name = p.getFileName().toString();
+                if (name.length() == prefix.length() + 20 + suffix.length()
+                        && name.startsWith(prefix) && name.endsWith(suffix)
+                        && name.substring(prefix.length(), prefix.length() + 20).chars().allMatch(Character::isDigit)) {
+                    result.add(p);
+                }
+            }
+        }
+        result.sort(Comparator.naturalOrder());
+        return result;
+    }
+}
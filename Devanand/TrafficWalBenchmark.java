@@ -0,0 +1,78 @@
+package com.example.trafficapi;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+// Measures durable enqueue throughput of TrafficWal (each writer waits for its record to be
+// fsynced, so throughput comes from group commit) and the time to recover a large log.
+//
+// Usage: java TrafficWalBenchmark [writerThreads] [seconds] [recoveryEvents]
+public class TrafficWalBenchmark {
+
+    public static void main(String[] args) throws Exception {
+        int writers = args.length > 0 ? Integer.parseInt(args[0]) : 64;
+        int seconds = args.length > 1 ? Integer.parseInt(args[1]) : 5;
+        int recoveryEvents = args.length > 2 ? Integer.parseInt(args[2]) : 1_000_000;
+
+        Path dir = Files.createTempDirectory("traffic-wal-bench");
+        try (TrafficWal wal = TrafficWal.open(dir, 2)) {
+            AtomicBoolean running = new AtomicBoolean(true);
+            LongAdder durable = new LongAdder();
+            List<Thread> threads = new ArrayList<>();
+            for (int t = 0; t < writers; t++) {
+                final int base = t * 10_000_000;
+                threads.add(new Thread(() -> {
+                    int id = base;
+                    try {
+                        while (running.get()) {
+                            long seq = wal.append(TrafficWal.ENQUEUE, id & 1, (byte) 0, id++, 1, System.currentTimeMillis(), "Car");
+                            wal.awaitDurable(seq);
+                            durable.increment();
+                        }
+                    } catch (Exception e) {
+                        throw new RuntimeException(e);
+                    }
+                }));
+            }
+            long start = System.nanoTime();
+            threads.forEach(Thread::start);
+            Thread.sleep(seconds * 1000L);
+            running.set(false);
+            for (Thread t : threads) t.join();
+            double elapsed = (System.nanoTime() - start) / 1e9;
+            System.out.printf("Durable appends: %d writers, %.0f events/s%n", writers, durable.sum() / elapsed);
+        }
+        deleteAll(dir);
+
+        // Recovery: 3/4 enqueues, 1/4 passes, no snapshot, so every record is replayed
+        dir = Files.createTempDirectory("traffic-wal-bench");
+        try (TrafficWal wal = TrafficWal.open(dir, 2)) {
+            int enqueues = recoveryEvents - recoveryEvents / 4;
+            for (int i = 0; i < enqueues; i++) {
+                wal.append(TrafficWal.ENQUEUE, i & 1, (byte) 0, i, 1 + i % 5, 0L, "Car");
+            }
+            for (int i = 0; i < recoveryEvents / 4; i++) {
+                wal.append(TrafficWal.PASS, i & 1, (byte) 0, i, 1, 0L, "Car");
+            }
+        }
+        long start = System.nanoTime();
+        try (TrafficWal wal = TrafficWal.open(dir, 2)) {
+            double ms = (System.nanoTime() - start) / 1e6;
+            TrafficWal.RecoveredState state = wal.recovered();
+            System.out.printf("Recovery: %d records replayed in %.1f ms, %d + %d vehicles queued%n",
+                    state.replayedRecords, ms, state.queues.get(0).size(), state.queues.get(1).size());
+        }
+        deleteAll(dir);
+    }
+
+    static void deleteAll(Path dir) throws Exception {
+        try (var files = Files.list(dir)) {
+            for (Path p : (Iterable<Path>) files::iterator) Files.delete(p);
+        }
+        Files.delete(dir);
+    }
+}
@@ -0,0 +1,63 @@
+package com.example.library;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+// Loan bookkeeping for users holding many books: the old ArrayList<Integer> approach
+// (contains + remove(Integer.valueOf(id)), both linear) against User's IntMultiset.
+// Each round borrows 'loans' books and returns them all in random order.
+//
+// Usage: java UserLoansBenchmark [loansPerUser] [rounds]
+public class UserLoansBenchmark {
+
+    public static void main(String[] args) {
+        int[] sizes = args.length > 0 ? new int[]{Integer.parseInt(args[0])} : new int[]{100, 1_000, 10_000};
+        int rounds = args.length > 1 ? Integer.parseInt(args[1]) : 20;
+
+        for (int loans : sizes) {
+            Random rnd = new Random(loans);
+            int[] borrowOrder = new int[loans];
+            for (int i = 0; i < loans; i++) borrowOrder[i] = rnd.nextInt(loans * 4);
+            int[] returnOrder = borrowOrder.clone();
+            for (int i = returnOrder.length - 1; i > 0; i--) {
+                int j = rnd.nextInt(i + 1);
+                int t = returnOrder[i]; returnOrder[i] = returnOrder[j]; returnOrder[j] = t;
+            }
+
+            long list = 0, multiset = 0;
+            for (int r = 0; r < rounds + 3; r++) {   // first 3 rounds warm up
+                long t0 = System.nanoTime();
+                listRound(borrowOrder, returnOrder);
+                long t1 = System.nanoTime();
+                userRound(borrowOrder, returnOrder);
+                long t2 = System.nanoTime();
+                if (r >= 3) {
+                    list += t1 - t0;
+                    multiset += t2 - t1;
+                }
+            }
+            double ops = 2.0 * loans * rounds;
+            System.out.printf("%6d loans/user: ArrayList %9.1f ns/op | IntMultiset %6.1f ns/op | %6.1fx%n",
+                    loans, list / ops, multiset / ops, (double) list / multiset);
+        }
+    }
+
+    static void listRound(int[] borrowOrder, int[] returnOrder) {
+        List<Integer> borrowed = new ArrayList<>();
+        for (int id : borrowOrder) borrowed.add(id);
+        for (int id : returnOrder) {
+            if (borrowed.contains(id)) borrowed.remove(Integer.valueOf(id));
+        }
+        if (!borrowed.isEmpty()) throw new AssertionError();
+    }
+
+    static void userRound(int[] borrowOrder, int[] returnOrder) {
+        User user = new User(1, "Institution");
+        for (int id : borrowOrder) user.borrowBook(id);
+        for (int id : returnOrder) {
+            if (user.hasBorrowed(id)) user.returnBook(id);
+        }
+        if (user.getLoanCount() != 0) throw new AssertionError();
+    }
+}
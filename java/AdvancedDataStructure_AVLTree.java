@@ -1,4 +1,4 @@
-
+package com.hacktoberfest2025;
 
 import java.util.Scanner;
 
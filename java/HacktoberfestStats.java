@@ -2,6 +2,7 @@ package com.hacktoberfest2025;
 
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.hacktoberfest2025.metrics.Metrics;
 import java.io.IOException;
 import java.net.URI;
 import java.net.http.HttpClient;
@@ -29,6 +30,9 @@ public class HacktoberfestStats {
     private final String repoName;
     private final String githubToken;
     
+    private static final FetchMetrics CONTRIBUTORS_FETCH = new FetchMetrics("contributors");
+    private static final FetchMetrics PULLS_FETCH = new FetchMetrics("pulls");
+    
     public HacktoberfestStats(String repoOwner, String repoName, String githubToken) {
         this.repoOwner = repoOwner;
         this.repoName = repoName;
@@ -164,23 +168,14 @@ public class HacktoberfestStats {
      */
     public List<Contributor> fetchContributors() throws IOException, InterruptedException {
         String url = String.format("%s/repos/%s/%s/contributors", GITHUB_API_BASE, repoOwner, repoName);
-        
-        HttpRequest.Builder requestBuilder = HttpRequest.newBuilder()
-                .uri(URI.create(url))
-                .GET();
-        
-        if (githubToken != null && !githubToken.isEmpty()) {
-            requestBuilder.header("Authorization", "token " + githubToken);
-        }
-        
-        HttpRequest request = requestBuilder.build();
-        HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
-        
-        if (response.statusCode() != 200) {
-            throw new RuntimeException("GitHub API request failed with status: " + response.statusCode());
-        }
-        
-        JsonNode jsonNode = objectMapper.readTree(response.body());
+        return parseContributors(fetch(url, CONTRIBUTORS_FETCH));
+    }
+    
+    /**
+     * Map a GitHub contributors response body to {@link Contributor}s
+     */
+    public List<Contributor> parseContributors(byte[] json) throws IOException {
+        JsonNode jsonNode = objectMapper.readTree(json);
         List<Contributor> contributors = new ArrayList<>();
         
         for (JsonNode node : jsonNode) {
@@ -201,23 +196,14 @@ public class HacktoberfestStats {
      */
     public List<PullRequest> fetchPullRequests() throws IOException, InterruptedException {
         String url = String.format("%s/repos/%s/%s/pulls?state=all", GITHUB_API_BASE, repoOwner, repoName);
-        
-        HttpRequest.Builder requestBuilder = HttpRequest.newBuilder()
-                .uri(URI.create(url))
-                .GET();
-        
-        if (githubToken != null && !githubToken.isEmpty()) {
-            requestBuilder.header("Authorization", "token " + githubToken);
-        }
-        
-        HttpRequest request = requestBuilder.build();
-        HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
-        
-        if (response.statusCode() != 200) {
-            throw new RuntimeException("GitHub API request failed with status: " + response.statusCode());
-        }
-        
-        JsonNode jsonNode = objectMapper.readTree(response.body());
+        return parsePullRequests(fetch(url, PULLS_FETCH));
+    }
+    
+    /**
+     * Map a GitHub pull requests response body to {@link PullRequest}s
+     */
+    public List<PullRequest> parsePullRequests(byte[] json) throws IOException {
+        JsonNode jsonNode = objectMapper.readTree(json);
         List<PullRequest> pullRequests = new ArrayList<>();
         
         for (JsonNode node : jsonNode) {
@@ -238,6 +224,55 @@ public class HacktoberfestStats {
         return pullRequests;
     }
     
+    /**
+     * GET a GitHub API URL and return the raw body. The body is handed to Jackson as bytes,
+     * so it is never decoded into an intermediate String.
+     */
+    private byte[] fetch(String url, FetchMetrics metrics) throws IOException, InterruptedException {
+        HttpRequest.Builder requestBuilder = HttpRequest.newBuilder()
+                .uri(URI.create(url))
+                .GET();
+        
+        if (githubToken != null && !githubToken.isEmpty()) {
+            requestBuilder.header("Authorization", "token " + githubToken);
+        }
+        
+        HttpRequest request = requestBuilder.build();
+        long start = System.nanoTime();
+        HttpResponse<byte[]> response;
+        try {
+            response = httpClient.send(request, HttpResponse.BodyHandlers.ofByteArray());
+        } catch (IOException e) {
+            metrics.errors.inc();
+            throw e;
+        } finally {
+            metrics.latency.recordSince(start);
+        }
+        metrics.bytes.add(response.body().length);
+        
+        if (response.statusCode() != 200) {
+            metrics.errors.inc();
+            throw new RuntimeException("GitHub API request failed with status: " + response.statusCode());
+        }
+        return response.body();
+    }
+    
+    /**
+     * Latency, volume and failures of one GitHub endpoint, reported to {@link Metrics#global()}
+     */
+    private static final class FetchMetrics {
+        final Metrics.Histogram latency;
+        final Metrics.Counter bytes;
+        final Metrics.Counter errors;
+        
+        FetchMetrics(String endpoint) {
+            Metrics m = Metrics.global();
+            latency = m.histogram("github_fetch_duration_seconds", "GitHub API request latency.", "endpoint", endpoint);
+            bytes = m.counter("github_fetch_bytes_total", "GitHub API response body bytes.", "endpoint", endpoint);
+            errors = m.counter("github_fetch_errors_total", "GitHub API requests that failed or returned non-200.", "endpoint", endpoint);
+        }
+    }
+    
     /**
      * Generate comprehensive Hacktoberfest statistics
      */
@@ -313,7 +348,10 @@ public class HacktoberfestStats {
     }
     
     /**
-     * Main method to run the statistics generator
+     * Main method to run the statistics generator.
+     * 
+     * Pass --metrics to print the fetch metrics (Prometheus text format) after the report,
+     * or set -Dmetrics.port=N to serve them at http://127.0.0.1:N/metrics until Enter is pressed.
      */
     public static void main(String[] args) {
         System.out.println("🎃 Hacktoberfest 2025 Java Statistics Generator");
@@ -328,6 +366,9 @@ public class HacktoberfestStats {
             System.out.println("💡 Tip: Set GITHUB_TOKEN environment variable for higher API rate limits");
         }
         
+        Integer metricsPort = Integer.getInteger("metrics.port");
+        com.sun.net.httpserver.HttpServer metricsServer = metricsPort == null ? null : Metrics.global().serve(metricsPort);
+        
         try {
             HacktoberfestStats statsGenerator = new HacktoberfestStats(repoOwner, repoName, githubToken);
             Statistics stats = statsGenerator.generateStatistics();
@@ -337,5 +378,19 @@ public class HacktoberfestStats {
             System.err.println("Error generating statistics: " + e.getMessage());
             e.printStackTrace();
         }
+        
+        if (List.of(args).contains("--metrics")) {
+            System.out.println();
+            System.out.print(Metrics.global().scrape());
+        }
+        if (metricsServer != null) {
+            System.out.println("📈 Metrics at http://127.0.0.1:" + metricsServer.getAddress().getPort() + "/metrics (press Enter to exit)");
+            try {
+                System.in.read();
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+            metricsServer.stop(0);
+        }
     }
 }
\ No newline at end of file
@@ -0,0 +1,232 @@
+package com.hacktoberfest2025.metrics;
+
+import com.sun.net.httpserver.HttpServer;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.DoubleSupplier;
+
+/**
+ * Lightweight in-process metrics shared by the Java components.
+ *
+ * Metrics are registered once, up front, with their label values fixed, and the returned
+ * {@link Counter}, {@link Gauge} or {@link Histogram} is kept in a field. Updating one is then a
+ * {@link LongAdder} increment (plus a leading-zero count for histograms): no map lookup, no
+ * boxing, no allocation, and no contention between threads. Everything is exported in the
+ * Prometheus text format by {@link #scrape()} or over HTTP by {@link #serve(int)}.
+ *
+ * Registering the same name and labels again returns the existing metric.
+ */
+public final class Metrics {
+
+    private static final Metrics GLOBAL = new Metrics();
+
+    /** The registry the components report to. */
+    public static Metrics global() {
+        return GLOBAL;
+    }
+
+    /** An empty registry of its own, for benchmarks and tests that must not share series. */
+    public Metrics() {
+    }
+
+    private final Map<String, Family> families = new LinkedHashMap<>();
+
+    // --- Metric types ---
+
+    /** Monotonic count, e.g. requests or bytes. */
+    public static final class Counter {
+        private final LongAdder value = new LongAdder();
+
+        public void inc() { value.increment(); }
+        public void add(long n) { value.add(n); }
+        public long get() { return value.sum(); }
+    }
+
+    /** Value that goes up and down, e.g. a queue length. */
+    public static final class Gauge {
+        private final AtomicLong value = new AtomicLong();
+
+        public void set(long v) { value.set(v); }
+        public void add(long delta) { value.addAndGet(delta); }
+        public long get() { return value.get(); }
+    }
+
+    /**
+     * Latency distribution in nanoseconds, exported in seconds. Buckets are powers of two from
+     * 1.024 us to ~34 s, so the bucket index is a leading-zero count rather than a search.
+     */
+    public static final class Histogram {
+        static final int MIN_SHIFT = 10;                  // first bucket: <= 2^10 ns
+        static final int BUCKETS = 26;                    // last finite bucket: <= 2^35 ns
+        private final LongAdder[] counts = new LongAdder[BUCKETS + 1];   // + overflow (+Inf)
+        private final LongAdder sumNanos = new LongAdder();
+
+        Histogram() {
+            for (int i = 0; i < counts.length; i++) counts[i] = new LongAdder();
+        }
+
+        public void record(long nanos) {
+            if (nanos < 0) nanos = 0;
+            int bucket = 64 - Long.numberOfLeadingZeros(Math.max(nanos - 1, 1)) - MIN_SHIFT;
+            counts[Math.min(Math.max(bucket, 0), BUCKETS)].increment();
+            sumNanos.add(nanos);
+        }
+
+        /** Records the time elapsed since {@code startNanos} (a {@link System#nanoTime()} value). */
+        public void recordSince(long startNanos) {
+            record(System.nanoTime() - startNanos);
+        }
+
+        public long count() {
+            long n = 0;
+            for (LongAdder c : counts) n += c.sum();
+            return n;
+        }
+
+        static double upperBoundSeconds(int bucket) {
+            return (1L << (bucket + MIN_SHIFT)) / 1e9;
+        }
+    }
+
+    // --- Registration ---
+
+    private enum Type { COUNTER, GAUGE, HISTOGRAM }
+
+    private static final class Family {
+        final String name;
+        final String help;
+        final Type type;
+        final Map<String, Object> series = new LinkedHashMap<>();   // rendered labels -> metric
+
+        Family(String name, String help, Type type) {
+            this.name = name;
+            this.help = help;
+            this.type = type;
+        }
+    }
+
+    /** A counter; {@code labels} are alternating names and values. */
+    public Counter counter(String name, String help, String... labels) {
+        return (Counter) register(name, help, Type.COUNTER, labels, Counter::new);
+    }
+
+    /** A gauge set by the caller. */
+    public Gauge gauge(String name, String help, String... labels) {
+        return (Gauge) register(name, help, Type.GAUGE, labels, Gauge::new);
+    }
+
+    /** A gauge read from {@code value} at scrape time, e.g. {@code queue::size}. */
+    public void gauge(String name, String help, DoubleSupplier value, String... labels) {
+        register(name, help, Type.GAUGE, labels, () -> value);
+    }
+
+    /** A latency histogram; record nanoseconds. */
+    public Histogram histogram(String name, String help, String... labels) {
+        return (Histogram) register(name, help, Type.HISTOGRAM, labels, Histogram::new);
+    }
+
+    private synchronized Object register(String name, String help, Type type, String[] labels,
+                                         java.util.function.Supplier<Object> create) {
+        if (labels.length % 2 != 0) throw new IllegalArgumentException("Labels must be name/value pairs: " + name);
+        Family family = families.computeIfAbsent(name, n -> new Family(n, help, type));
+        if (family.type != type) throw new IllegalArgumentException(name + " is already a " + family.type);
+        return family.series.computeIfAbsent(renderLabels(labels), k -> create.get());
+    }
+
+    // --- Export ---
+
+    /** All metrics in the Prometheus text exposition format (version 0.0.4). */
+    public String scrape() {
+        StringBuilder out = new StringBuilder(4096);
+        List<Family> snapshot;
+        synchronized (this) {
+            snapshot = new ArrayList<>(families.values());
+        }
+        for (Family f : snapshot) {
+            List<Map.Entry<String, Object>> series;
+            synchronized (this) {
+                series = new ArrayList<>(f.series.entrySet());
+            }
+            out.append("# HELP ").append(f.name).append(' ').append(f.help).append('\n');
+            out.append("# TYPE ").append(f.name).append(' ').append(f.type.name().toLowerCase()).append('\n');
+            for (Map.Entry<String, Object> s : series) {
+                String labels = s.getKey();
+                Object m = s.getValue();
+                switch (f.type) {
+                    case COUNTER -> sample(out, f.name, labels, ((Counter) m).get());
+                    case GAUGE -> sample(out, f.name, labels, m instanceof Gauge g ? g.get() : ((DoubleSupplier) m).getAsDouble());
+                    case HISTOGRAM -> histogram(out, f.name, labels, (Histogram) m);
+                }
+            }
+        }
+        return out.toString();
+    }
+
+    /**
+     * Serves {@link #scrape()} at {@code http://127.0.0.1:port/metrics} (loopback only).
+     * Port 0 picks a free port; stop the returned server to shut it down.
+     */
+    public HttpServer serve(int port) {
+        try {
+            HttpServer server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+            server.createContext("/metrics", exchange -> {
+                byte[] body = scrape().getBytes(StandardCharsets.UTF_8);
+                exchange.getResponseHeaders().set("Content-Type", "text/plain; version=0.0.4; charset=utf-8");
+                exchange.sendResponseHeaders(200, body.length);
+                try (OutputStream os = exchange.getResponseBody()) {
+                    os.write(body);
+                }
+            });
+            server.start();
+            return server;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot serve metrics on port " + port, e);
+        }
+    }
+
+    private static void histogram(StringBuilder out, String name, String labels, Histogram h) {
+        String prefix = labels.isEmpty() ? "{" : labels.substring(0, labels.length() - 1) + ",";
+        long cumulative = 0;
+        for (int i = 0; i < Histogram.BUCKETS; i++) {
+            cumulative += h.counts[i].sum();
+            out.append(name).append("_bucket").append(prefix).append("le=\"")
+                    .append(Histogram.upperBoundSeconds(i)).append("\"} ").append(cumulative).append('\n');
+        }
+        cumulative += h.counts[Histogram.BUCKETS].sum();
+        out.append(name).append("_bucket").append(prefix).append("le=\"+Inf\"} ").append(cumulative).append('\n');
+        sample(out, name + "_sum", labels, h.sumNanos.sum() / 1e9);
+        sample(out, name + "_count", labels, cumulative);
+    }
+
+    private static void sample(StringBuilder out, String name, String labels, double value) {
+        out.append(name).append(labels).append(' ');
+        if (value == Math.rint(value) && Math.abs(value) < 1e15) out.append((long) value); else out.append(value);
+        out.append('\n');
+    }
+
+    private static String renderLabels(String[] labels) {
+        if (labels.length == 0) return "";
+        StringBuilder sb = new StringBuilder("{");
+        for (int i = 0; i < labels.length; i += 2) {
+            if (i > 0) sb.append(',');
+            sb.append(labels[i]).append("=\"");
+            for (char c : labels[i + 1].toCharArray()) {
+                if (c == '\\' || c == '"') sb.append('\\').append(c);
+                else if (c == '\n') sb.append("\\n");
+                else sb.append(c);
+            }
+            sb.append('"');
+        }
+        return sb.append('}').toString();
+    }
+}
@@ -0,0 +1,67 @@
+package com.example.library;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+// Library operations on a journal-backed store in a temp directory: a borrow+return pair
+// (locks, copy CAS, reverse index, two journal records) and indexed searches.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LibraryBench {
+    private static final String[] GENRES = {"Fiction", "Science", "History", "Poetry", "Drama", "Travel"};
+    private static final int BOOKS = 50_000;
+    private static final int USERS = 1_000;
+
+    private Path dir;
+    private Library library;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        dir = Files.createTempDirectory("library-bench");
+        library = new Library(dir);
+        Random rnd = new Random(42);
+        for (int id = 0; id < BOOKS; id++) {
+            library.addBook(new Book(id, "Title " + id, "Author " + rnd.nextInt(5_000),
+                    GENRES[rnd.nextInt(GENRES.length)], 1 + rnd.nextInt(3)));
+        }
+        for (int id = 0; id < USERS; id++) library.addUser(new User(id, "User " + id));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        library.close();
+        try (Stream<Path> files = Files.walk(dir)) {
+            for (Path p : (Iterable<Path>) files.sorted(Comparator.reverseOrder())::iterator) Files.delete(p);
+        }
+    }
+
+    @Benchmark
+    public boolean borrowAndReturn() {
+        int i = next++ & Integer.MAX_VALUE;
+        int user = i % USERS, book = (int) (i * 31L % BOOKS);
+        return library.borrowBook(user, book) & library.returnBook(user, book);
+    }
+
+    // Book is package-private, so the searches return hit counts rather than the lists
+    @Benchmark
+    public int searchGenreAvailable() {
+        return library.searchBooks(GENRES[next++ % GENRES.length], null, null, true).size();
+    }
+
+    @Benchmark
+    public int searchAuthor() {
+        return library.searchBooks(null, "Author " + (next++ % 5_000), null, false).size();
+    }
+}
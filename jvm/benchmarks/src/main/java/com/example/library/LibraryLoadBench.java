@@ -0,0 +1,82 @@
+package com.example.library;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+// Cold start of the same catalog:
+//   booksDat:     deserializing a books.dat (HashMap<Integer, Book> written with
+//                 ObjectOutputStream), which is how the library loaded before the journal
+//   snapshot:     LibraryJournal.open reading the store's snapshot into the same map
+//   openLibrary:  the whole Library constructor, i.e. the snapshot plus the search indexes
+// Files are read from the page cache. Run with -prof gc to compare what each load allocates.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 10)
+@Fork(value = 1, jvmArgs = "-Xmx4g")
+public class LibraryLoadBench {
+    @Param({"100000", "1000000"})
+    int books;
+
+    private Path dir;
+    private Path store;
+    private File booksDat;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        dir = Files.createTempDirectory("library-load");
+        store = dir.resolve("store");
+        booksDat = dir.resolve("books.dat").toFile();
+        Map<Integer, Book> catalog = new HashMap<>();
+        Random rnd = new Random(7);
+        for (int id = 1; id <= books; id++) {
+            catalog.put(id, new Book(id, "Title of book number " + id, "Author " + rnd.nextInt(50_000),
+                    "Genre " + rnd.nextInt(40), 1 + rnd.nextInt(5)));
+        }
+        try (ObjectOutputStream out = new ObjectOutputStream(new BufferedOutputStream(new FileOutputStream(booksDat)))) {
+            out.writeObject(catalog);
+        }
+        LibraryJournal journal = LibraryJournal.open(store, new HashMap<>(), new HashMap<>());
+        journal.compact(catalog, new HashMap<>());
+        journal.close();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        try (Stream<Path> files = Files.walk(dir)) {
+            for (Path p : (Iterable<Path>) files.sorted(Comparator.reverseOrder())::iterator) Files.delete(p);
+        }
+    }
+
+    @Benchmark
+    public int booksDat() throws IOException, ClassNotFoundException {
+        try (ObjectInputStream in = new ObjectInputStream(new BufferedInputStream(new FileInputStream(booksDat)))) {
+            return ((Map<?, ?>) in.readObject()).size();
+        }
+    }
+
+    @Benchmark
+    public int snapshot() throws IOException {
+        Map<Integer, Book> books = new HashMap<>();
+        LibraryJournal.open(store, books, new HashMap<>()).close();
+        return books.size();
+    }
+
+    @Benchmark
+    public int openLibrary() {
+        Library library = new Library(store, store);
+        int size = library.getBooks().size();
+        library.close();
+        return size;
+    }
+}
@@ -0,0 +1,118 @@
+package com.example.shop;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+// Checkout burst: price many carts holding stacked coupons. Scores are per cart.
+//   doublePath:   what ShoppingCart did per request - re-sum the cart's double prices, then for
+//                 each code a boxed HashMap<String, Double> lookup and total -= total * discount
+//   centsPath:    running long totals from Cart plus one PricingEngine.checkout over the burst
+//   stackedRules: the same batch with a threshold rule added to every cart's percentage codes
+// Setup prints how many carts the double path prices differently from the cents path once
+// rounded to the cent; the cents path rounds each discount the way a receipt shows it.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@OperationsPerInvocation(PricingBench.CARTS)
+public class PricingBench {
+    static final int CARTS = 100_000;
+    private static final String[] CODES = {"NEW10", "SALE20", "VIP5", "FIVEOFF50", "TENOFF200"};
+
+    @Param({"20"})
+    int itemsPerCart;
+
+    private final Map<String, Double> doubleCoupons = new HashMap<>();
+    private final PricingEngine engine = new PricingEngine();
+    private List<List<Product>> lists;
+    private Cart[] carts;
+    private String[][] cartCodes;
+    private long[] masks;
+    private long[] stackedMasks;
+    private final double[] doubleTotals = new double[CARTS];
+    private final long[] subtotals = new long[CARTS];
+    private final long[] cents = new long[CARTS];
+
+    @Setup(Level.Trial)
+    public void setup() {
+        doubleCoupons.put("NEW10", 0.10);
+        doubleCoupons.put("SALE20", 0.20);
+        doubleCoupons.put("VIP5", 0.05);
+        engine.addPercentOff("NEW10", 1_000);
+        engine.addPercentOff("SALE20", 2_000);
+        engine.addPercentOff("VIP5", 500);
+        engine.addAmountOff("FIVEOFF50", 500, 5_000);
+        engine.addAmountOff("TENOFF200", 1_000, 20_000);
+
+        Random rnd = new Random(7);
+        Product[] products = new Product[10_000];
+        for (int i = 0; i < products.length; i++) {
+            products[i] = new Product(i, "Product " + i, (99 + rnd.nextInt(20_000)) / 100.0, 0);
+        }
+        lists = new ArrayList<>(CARTS);
+        carts = new Cart[CARTS];
+        cartCodes = new String[CARTS][];
+        masks = new long[CARTS];
+        stackedMasks = new long[CARTS];
+        for (int c = 0; c < CARTS; c++) {
+            List<Product> list = new ArrayList<>(itemsPerCart);
+            Cart cart = new Cart();
+            for (int i = 0; i < itemsPerCart; i++) {
+                Product p = products[rnd.nextInt(products.length)];
+                list.add(p);
+                cart.add(p);
+            }
+            lists.add(list);
+            carts[c] = cart;
+            // percentage codes only, so both paths compute the same thing
+            List<String> held = new ArrayList<>();
+            for (int k = 0; k < 3; k++) if (rnd.nextInt(3) == 0) held.add(CODES[k]);
+            cartCodes[c] = held.toArray(new String[0]);
+            masks[c] = engine.maskOf(cartCodes[c]);
+            stackedMasks[c] = masks[c] | engine.maskOf(CODES[3 + rnd.nextInt(2)]);
+        }
+
+        doublePath();
+        centsPath();
+        int mismatches = 0;
+        for (int c = 0; c < CARTS; c++) {
+            if (Math.round(doubleTotals[c] * 100) != cents[c]) mismatches++;
+            if (cents[c] != engine.checkout(carts[c].totalCents(), masks[c])) {
+                throw new IllegalStateException("batch checkout differs from single checkout for cart " + c);
+            }
+        }
+        System.out.printf("%ncarts where double != exact cents: %,d of %,d (%.2f%%)%n",
+                mismatches, CARTS, mismatches * 100.0 / CARTS);
+    }
+
+    @Benchmark
+    public double[] doublePath() {
+        for (int c = 0; c < CARTS; c++) {
+            double total = 0;
+            for (Product p : lists.get(c)) total += p.price;
+            for (String code : cartCodes[c]) {
+                Double discount = doubleCoupons.get(code);
+                if (discount != null) total -= total * discount;
+            }
+            doubleTotals[c] = total;
+        }
+        return doubleTotals;
+    }
+
+    @Benchmark
+    public long[] centsPath() {
+        for (int c = 0; c < CARTS; c++) subtotals[c] = carts[c].totalCents();
+        engine.checkout(subtotals, masks, cents, CARTS);
+        return cents;
+    }
+
+    @Benchmark
+    public long[] stackedRules() {
+        engine.checkout(subtotals, stackedMasks, cents, CARTS);
+        return cents;
+    }
+}
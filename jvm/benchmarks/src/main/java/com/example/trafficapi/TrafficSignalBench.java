@@ -0,0 +1,61 @@
+package com.example.trafficapi;
+
+import com.hacktoberfest2025.metrics.Metrics;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// TrafficSignal queueing without the WAL: steady-state enqueue + serve at a given queue depth,
+// a 100-vehicle batch enqueue, and the top-N snapshot that GET /signals builds per signal.
+// Each signal gets its own metrics registry and no event log, so nothing is printed and every
+// iteration's queue gauge is registered afresh.
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TrafficSignalBench {
+    private static final String[] TYPES = {"Car", "Bus", "Truck", "Bike"};
+
+    @Param({"100", "10000"})
+    int depth;
+
+    private TrafficSignal signal;
+    private List<Vehicle> batch;
+    private int nextId;
+
+    @Setup(Level.Iteration)
+    public void setup() {
+        signal = new TrafficSignal("Bench", 0, new Metrics(), null);
+        for (int i = 0; i < depth; i++) signal.addVehicle(vehicle());
+        batch = new ArrayList<>(100);
+        for (int i = 0; i < 100; i++) batch.add(vehicle());
+    }
+
+    @Benchmark
+    public int enqueueAndServe() {
+        signal.addVehicle(vehicle());
+        signal.processNextVehicle();
+        return signal.queueSize();
+    }
+
+    @Benchmark
+    public int batchEnqueueAndServe() {
+        signal.addVehicles(batch);
+        for (int i = 0; i < batch.size(); i++) signal.processNextVehicle();
+        return signal.queueSize();
+    }
+
+    @Benchmark
+    public int topTen() {
+        return signal.nextVehicles(0, 10).get(0).id;
+    }
+
+    private Vehicle vehicle() {
+        int id = nextId++;
+        return new Vehicle(id, TYPES[id & 3], 1 + id % 3);
+    }
+}
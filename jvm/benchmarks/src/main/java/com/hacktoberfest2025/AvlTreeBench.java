@@ -0,0 +1,47 @@
+package com.hacktoberfest2025;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+// Building an AdvancedDataStructure_AVLTree from random and from ascending keys
+// (ascending input is the worst case for an unbalanced tree and exercises every rotation).
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AvlTreeBench {
+
+    @Param({"1000", "100000"})
+    int size;
+
+    int[] randomKeys;
+    int[] ascendingKeys;
+
+    @Setup
+    public void setup() {
+        randomKeys = new Random(42).ints(size).toArray();
+        ascendingKeys = new int[size];
+        for (int i = 0; i < size; i++) ascendingKeys[i] = i;
+    }
+
+    @Benchmark
+    public int insertRandom() {
+        return build(randomKeys);
+    }
+
+    @Benchmark
+    public int insertAscending() {
+        return build(ascendingKeys);
+    }
+
+    // Returns the root height so the tree cannot be optimised away
+    private static int build(int[] keys) {
+        AdvancedDataStructure_AVLTree tree = new AdvancedDataStructure_AVLTree();
+        for (int key : keys) tree.root = tree.insert(tree.root, key);
+        return tree.root.height;
+    }
+}
@@ -0,0 +1,47 @@
+package com.hacktoberfest2025;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// HacktoberfestStats mapping GitHub response bodies to its model classes, on fixtures in the
+// shape of one page (30 items) of GET /repos/{owner}/{repo}/contributors and /pulls?state=all.
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class StatsJsonBench {
+
+    private HacktoberfestStats stats;
+    private byte[] contributors;
+    private byte[] pulls;
+
+    @Setup
+    public void setup() throws IOException {
+        stats = new HacktoberfestStats("hari7261", "Hacktoberfest-2025", null);
+        contributors = fixture("contributors.json");
+        pulls = fixture("pulls.json");
+    }
+
+    @Benchmark
+    public List<HacktoberfestStats.Contributor> parseContributors() throws IOException {
+        return stats.parseContributors(contributors);
+    }
+
+    @Benchmark
+    public List<HacktoberfestStats.PullRequest> parsePullRequests() throws IOException {
+        return stats.parsePullRequests(pulls);
+    }
+
+    private static byte[] fixture(String name) throws IOException {
+        try (InputStream in = StatsJsonBench.class.getResourceAsStream("/fixtures/" + name)) {
+            if (in == null) throw new IOException("Missing fixture " + name);
+            return in.readAllBytes();
+        }
+    }
+}
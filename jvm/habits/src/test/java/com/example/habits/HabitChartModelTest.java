@@ -0,0 +1,85 @@
+package com.example.habits;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+// The assertions of HabitChartModelCheck (checks 1-2; check 3 is a timing), against a plain map
+// as the "chart". The renderer fails on an add of a present slice or an update/remove of a
+// missing one.
+class HabitChartModelTest {
+    private final Map<Long, Double> chart = new HashMap<>();
+    private HabitChartModel.Renderer render;
+
+    @BeforeEach
+    void chart() {
+        render = changes -> {
+            for (HabitChartModel.SliceChange c : changes) {
+                switch (c.kind) {
+                    case ADDED -> { if (chart.put(c.id, c.value) != null) throw new AssertionError("added twice"); }
+                    case UPDATED -> { if (chart.put(c.id, c.value) == null) throw new AssertionError("update of missing slice"); }
+                    case REMOVED -> { if (chart.remove(c.id) == null) throw new AssertionError("remove of missing slice"); }
+                }
+            }
+        };
+    }
+
+    @Test
+    void changesCoalesce() {
+        HabitChartModel model = new HabitChartModel();
+        Habit a = HabitChartModelCheck.habit(1, "Run", 0), b = HabitChartModelCheck.habit(2, "Read", 3);
+        model.put(a);
+        a.setStreak(1);
+        model.put(a);
+        model.put(b);
+        model.remove(b);
+        assertEquals(1, model.drain(render), "add+update and add+remove coalesce to one change");
+        assertEquals(1.0, chart.get(1L));
+
+        model.remove(a);
+        model.put(a);
+        assertEquals(1, model.drain(render), "remove+re-add is one update");
+        assertEquals(1, chart.size());
+    }
+
+    @Test
+    void chartMatchesModelAfterRandomEdits() {
+        HabitChartModel model = new HabitChartModel();
+        Random rnd = new Random(1);
+        List<Habit> live = new ArrayList<>();
+        long nextId = 1;
+        for (int i = 0; i < 200_000; i++) {
+            int dice = rnd.nextInt(10);
+            if (live.isEmpty() || dice < 2) {
+                Habit h = HabitChartModelCheck.habit(nextId++, "H", 0);
+                live.add(h);
+                model.put(h);
+            } else if (dice < 3) {
+                model.remove(live.remove(rnd.nextInt(live.size())));
+            } else {
+                Habit h = live.get(rnd.nextInt(live.size()));
+                h.setStreak(h.getStreak() + 1);
+                model.put(h);
+            }
+            if (rnd.nextInt(20) == 0) {
+                model.drain(render);
+                assertEquals(live.size(), chart.size(), "slices after edit " + i);
+            }
+        }
+        model.drain(render);
+        double sum = 0;
+        for (Habit h : live) {
+            assertEquals((double) h.getStreak(), chart.get(h.getId()), "slice of habit " + h.getId());
+            sum += h.getStreak();
+        }
+        assertEquals(live.size(), chart.size());
+        assertEquals(sum, model.total());
+    }
+}
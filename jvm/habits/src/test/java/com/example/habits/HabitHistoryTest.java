@@ -0,0 +1,59 @@
+package com.example.habits;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.util.Random;
+import java.util.TreeSet;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+// The reference comparison of HabitHistoryBenchmark: streaks and monthly counts of a synthetic
+// multi-year history must match a plain TreeSet<LocalDate> per habit
+class HabitHistoryTest {
+    private static final LocalDate TODAY = LocalDate.of(2025, 6, 15);
+
+    @Test
+    void matchesTreeSetReference() {
+        LocalDate start = TODAY.minusYears(5);
+        Random rnd = new Random(3);
+        for (int i = 0; i < 300; i++) {
+            Habit h = new Habit("Habit " + i, i % 3 == 0 ? "Weekly" : "Daily", 0, null);
+            TreeSet<LocalDate> reference = new TreeSet<>();
+            double p = 0.5 + rnd.nextDouble() * 0.5;
+            for (LocalDate d = start; !d.isAfter(TODAY); d = d.plusDays(1)) {
+                boolean done = d.isAfter(TODAY.minusDays(i % 200)) || rnd.nextDouble() < p;
+                if (h.getFrequency().equals("Weekly")) done &= d.getDayOfWeek() == DayOfWeek.SATURDAY;
+                if (done) {
+                    h.markDone(d);
+                    reference.add(d);
+                }
+            }
+            LocalDate yesterday = TODAY.minusDays(1);
+            assertEquals(!reference.contains(yesterday), h.markDone(yesterday), "markDone on a day already done");
+            reference.add(yesterday);
+
+            assertEquals(HabitHistoryBenchmark.naiveStreak(reference, h.getFrequency(), TODAY),
+                    h.getHistory().streak(h.getFrequency(), TODAY), "streak of habit " + i);
+            for (int year = start.getYear(); year <= TODAY.getYear(); year++) {
+                int[] expected = new int[12];
+                for (int m = 0; m < 12; m++) {
+                    LocalDate first = LocalDate.of(year, m + 1, 1);
+                    expected[m] = reference.subSet(first, true, first.plusMonths(1), false).size();
+                }
+                assertArrayEquals(expected, h.getHistory().monthlyCounts(year), "months of habit " + i + " in " + year);
+            }
+        }
+    }
+
+    @Test
+    void secondMarkOnTheSameDayIsRefused() {
+        Habit h = new Habit("Run", "Daily", 0, null);
+        h.markDone(TODAY);
+        assertFalse(h.markDone(TODAY));
+        assertEquals(1, h.getHistory().count(TODAY, TODAY));
+    }
+}
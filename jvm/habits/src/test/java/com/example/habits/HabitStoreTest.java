@@ -0,0 +1,77 @@
+package com.example.habits;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// The assertions of HabitStoreCheck (checks 1-4; check 5 is a timing)
+class HabitStoreTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void editsAreCoalescedAndSurviveReopen() throws Exception {
+        Path log = dir.resolve("habits.log");
+        HabitStore store = HabitStore.open(dir);
+        Habit run = new Habit("Run", "Daily", 0, null);
+        Habit read = new Habit("Read", "Weekly", 0, null);
+        Habit gone = new Habit("Smoke less", "Daily", 0, null);
+        for (int i = 0; i < 50; i++) {
+            run.markDone(LocalDate.of(2024, 1, 1).plusDays(i));
+            store.markChanged(run);
+        }
+        store.markChanged(read);
+        store.markChanged(gone);
+        store.markDeleted(gone);
+        store.flush();
+        assertEquals(3, Files.readAllLines(log).size(), "50 edits + add + add/delete coalesced into 3 log lines");
+
+        store.close();
+        store = HabitStore.open(dir);
+        List<Habit> loaded = store.habits();
+        assertEquals(2, loaded.size());
+        assertEquals(50, loaded.get(0).getStreak());
+        assertEquals(LocalDate.of(2024, 2, 19), loaded.get(0).getLastDone());
+        assertEquals(50, loaded.get(0).getHistory().count(LocalDate.of(2024, 1, 1), LocalDate.of(2024, 12, 31)));
+        store.close();
+    }
+
+    @Test
+    void tornLastLineIsIgnored() throws Exception {
+        HabitStore store = HabitStore.open(dir);
+        store.markChanged(new Habit("Run", "Daily", 0, null));
+        store.markChanged(new Habit("Read", "Weekly", 0, null));
+        store.close();
+        Files.write(dir.resolve("habits.log"), "{\"op\":\"put\",\"id\":9,\"habit\":{\"na".getBytes(StandardCharsets.UTF_8),
+                StandardOpenOption.APPEND);
+
+        store = HabitStore.open(dir);
+        assertEquals(2, store.habits().size());
+        store.close();
+    }
+
+    @Test
+    void legacyFileIsNumberedAndRewritten() throws Exception {
+        Files.writeString(dir.resolve("habits.json"),
+                "[{\"name\":\"Yoga\",\"frequency\":\"Daily\",\"streak\":4,\"lastDone\":{\"year\":2023,\"month\":5,\"day\":7}},"
+                        + "{\"name\":\"Piano\",\"frequency\":\"Weekly\",\"streak\":0,\"lastDone\":null}]");
+        HabitStore store = HabitStore.open(dir);
+        List<Habit> old = store.habits();
+        assertEquals(2, old.size());
+        assertEquals(1, old.get(0).getId());
+        assertEquals(2, old.get(1).getId());
+        assertEquals(LocalDate.of(2023, 5, 7), old.get(0).getLastDone());
+        store.close();
+        assertTrue(Files.readString(dir.resolve("habits.json")).contains("2023-05-07"), "rewritten with ISO dates");
+    }
+}
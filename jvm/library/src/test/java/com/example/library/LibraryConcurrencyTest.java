@@ -0,0 +1,52 @@
+package com.example.library;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+// LibraryStressTest's scenarios as assertions, plus a reopen of the journal the traffic was
+// written to
+class LibraryConcurrencyTest {
+    private static final int BOOKS = 2_000;
+    private static final int USERS = 500;
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void lastCopyHasExactlyOneWinner() throws Exception {
+        Library library = new Library(dir, dir);
+        int winners = LibraryStressTest.lastCopyRace(library, 16);
+        library.close();
+
+        assertEquals(1, winners);
+        assertEquals(0, library.getBook(0).getAvailableCopies());
+    }
+
+    @Test
+    void randomTrafficNeitherOversellsNorLosesCopies() throws Exception {
+        Library library = new Library(dir, dir);
+        Map<Integer, Integer> initialCopies = LibraryStressTest.addCatalog(library, BOOKS, 0, USERS);
+        LibraryStressTest.runTraffic(library, 4, 1, BOOKS, 0, USERS);
+        Map<Integer, Integer> before = shelf(library);
+        assertEquals(0, LibraryStressTest.brokenBooks(library, initialCopies), "books oversold or lost");
+        library.close();
+
+        // the journal (and any snapshot compaction wrote meanwhile) must give back the same state
+        Library reopened = new Library(dir, dir);
+        assertEquals(before, shelf(reopened));
+        assertEquals(0, LibraryStressTest.brokenBooks(reopened, initialCopies), "books oversold or lost after reopening");
+        reopened.close();
+    }
+
+    private static Map<Integer, Integer> shelf(Library library) {
+        Map<Integer, Integer> copies = new HashMap<>();
+        for (Book b : library.getBooks()) copies.put(b.getId(), b.getAvailableCopies());
+        return copies;
+    }
+}
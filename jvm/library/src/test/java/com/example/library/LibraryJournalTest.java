@@ -0,0 +1,59 @@
+package com.example.library;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class LibraryJournalTest {
+    @TempDir
+    Path dir;
+
+    // Lengths past Short.MAX_VALUE still fit the unsigned length prefix
+    @Test
+    void longFieldsSurviveReplayAndSnapshot() throws Exception {
+        String title = "t".repeat(40_000);
+        String author = "é".repeat(LibraryJournal.MAX_STRING_BYTES / 2);
+        Library library = new Library(dir, dir);
+        library.addBook(new Book(1, title, author, "Genre", 2));
+        library.addUser(new User(1, "n".repeat(LibraryJournal.MAX_STRING_BYTES)));
+        library.close();
+
+        Library replayed = new Library(dir, dir);
+        assertEquals(title, replayed.getBook(1).getTitle());
+        assertEquals(author, replayed.getBook(1).getAuthor());
+        replayed.close();
+
+        Map<Integer, Book> books = new HashMap<>();
+        Map<Integer, User> users = new HashMap<>();
+        LibraryJournal journal = LibraryJournal.open(dir, books, users);
+        journal.compact(books, users);
+        journal.close();
+        Library fromSnapshot = new Library(dir, dir);
+        assertEquals(title, fromSnapshot.getBook(1).getTitle());
+        assertEquals(LibraryJournal.MAX_STRING_BYTES, fromSnapshot.getUser(1).getName().length());
+        fromSnapshot.close();
+    }
+
+    @Test
+    void overLongFieldsAreRefusedBeforeAnythingChanges() {
+        Library library = new Library(dir, dir);
+        String tooLong = "€".repeat(LibraryJournal.MAX_STRING_BYTES / 3 + 1);
+        assertThrows(IllegalArgumentException.class, () -> library.addBook(new Book(1, tooLong, "A", "G", 1)));
+        assertThrows(IllegalArgumentException.class, () -> library.addUser(new User(1, tooLong)));
+        assertNull(library.getBook(1));
+        assertEquals(0, library.searchBooks(null, "A", null, false).size());
+        library.addBook(new Book(2, "Fine", "A", "G", 1));
+        library.close();
+
+        Library reopened = new Library(dir, dir);
+        assertEquals(1, reopened.getBooks().size());
+        reopened.close();
+    }
+}
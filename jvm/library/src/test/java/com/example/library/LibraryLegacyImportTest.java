@@ -0,0 +1,47 @@
+package com.example.library;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+// books.dat/users.dat in src/test/resources/legacy were written by the DigitalLibrary that
+// predates the journal (no package): Dune (3 copies) and Emma (1), Ada borrowed both and Linus
+// borrowed Dune
+class LibraryLegacyImportTest {
+    @TempDir
+    Path dir;
+
+    @Test
+    void importsFilesWrittenBeforeThePackageExisted() throws Exception {
+        Path legacy = Paths.get(getClass().getResource("/legacy/books.dat").toURI()).getParent();
+        Library library = new Library(dir, legacy);
+        assertImported(library);
+        library.close();
+
+        // the import was compacted into the journal store, so the legacy files are not needed again
+        Library reopened = new Library(dir, dir.resolve("no-legacy-files"));
+        assertImported(reopened);
+        reopened.close();
+    }
+
+    private static void assertImported(Library library) {
+        assertEquals(2, library.getBooks().size());
+        assertEquals(2, library.getUsers().size());
+        assertEquals("Dune", library.getBook(1).getTitle());
+        assertEquals(1, library.getBook(1).getAvailableCopies());
+        assertEquals(0, library.getBook(2).getAvailableCopies());
+        int[] adaHolds = library.getUser(10).getBorrowedBooks();
+        Arrays.sort(adaHolds);
+        assertArrayEquals(new int[] {1, 2}, adaHolds);
+        int[] duneHolders = library.whoHas(1);
+        Arrays.sort(duneHolders);
+        assertArrayEquals(new int[] {10, 11}, duneHolders);
+        assertEquals(1, library.searchBooks("Classic", null, null, false).size());
+    }
+}
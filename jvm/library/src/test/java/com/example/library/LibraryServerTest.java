@@ -0,0 +1,75 @@
+package com.example.library;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.BufferedReader;
+import java.io.InputStreamReader;
+import java.io.PrintWriter;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LibraryServerTest {
+    @TempDir
+    Path dir;
+
+    // One event loop, so both clients share the selector a failing request runs on
+    @Test
+    void failingRequestClosesOnlyItsConnection() throws Exception {
+        Library library = new Library(dir, dir) {
+            @Override
+            public Book getBook(int id) {
+                if (id == 13) throw new IllegalStateException("unlucky book");
+                return super.getBook(id);
+            }
+        };
+        LibraryServer server = new LibraryServer(library, 0, 1);
+        try (Socket bystander = connect(server); Socket failing = connect(server)) {
+            assertEquals("OK", call(bystander, "PING"));
+            assertEquals("ERR bad request", call(failing, "BORROW 1"));
+            assertEquals("ERR internal error", call(failing, "BOOK 13"));
+            assertNull(reader(failing).readLine(), "connection closed after the failure");
+            assertEquals("OK", call(bystander, "ADDBOOK 1 1 Title|Author|Genre"));
+            assertEquals("OK 1|Title|Author|Genre|1", call(bystander, "BOOK 1"));
+        } finally {
+            server.close();
+            library.close();
+        }
+    }
+
+    @Test
+    void listensOnLoopbackByDefault() throws Exception {
+        Library library = new Library(dir, dir);
+        LibraryServer server = new LibraryServer(library, 0, 1);
+        try {
+            assertTrue(server.address().isLoopbackAddress());
+        } finally {
+            server.close();
+            library.close();
+        }
+    }
+
+    private static Socket connect(LibraryServer server) throws Exception {
+        Socket s = new Socket(InetAddress.getLoopbackAddress(), server.port());
+        s.setSoTimeout(5_000);
+        return s;
+    }
+
+    private static String call(Socket s, String request) throws Exception {
+        PrintWriter out = new PrintWriter(s.getOutputStream(), true, StandardCharsets.UTF_8);
+        out.print(request + "\n");
+        out.flush();
+        return reader(s).readLine();
+    }
+
+    // Unbuffered beyond one line at a time, so a fresh reader per call loses nothing
+    private static BufferedReader reader(Socket s) throws Exception {
+        return new BufferedReader(new InputStreamReader(s.getInputStream(), StandardCharsets.UTF_8), 1);
+    }
+}
@@ -0,0 +1,34 @@
+package com.example.trafficapi;
+
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.nio.file.Files;
+
+// Starts the traffic API in this JVM on a free loopback port with a fresh WAL directory,
+// runs TrafficApiLoadTest against it and shuts the server down again. Client and server share
+// the machine (and this JVM), so compare runs with each other rather than with production.
+// If the first argument is a URL, the test runs against that server instead.
+//
+// Usage: java -jar jvm/load-tests/target/load-tests.jar [baseUrl] [seconds] [ingestThreads] [pollThreads] [batchSize]
+public class LocalTrafficLoadTest {
+
+    public static void main(String[] args) throws Exception {
+        if (args.length > 0 && args[0].startsWith("http")) {
+            TrafficApiLoadTest.main(args);
+            return;
+        }
+        System.setProperty("traffic.wal.dir", Files.createTempDirectory("traffic-wal-load").toString());
+        ConfigurableApplicationContext server = SpringApplication.run(SmartTrafficApiApplication.class,
+                "--server.port=0", "--server.address=127.0.0.1");
+        try {
+            String baseUrl = "http://127.0.0.1:" + server.getEnvironment().getProperty("local.server.port");
+            String[] testArgs = new String[args.length + 1];
+            testArgs[0] = baseUrl;
+            System.arraycopy(args, 0, testArgs, 1, args.length);
+            TrafficApiLoadTest.main(testArgs);
+        } finally {
+            server.close();
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package com.example.shop;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// The TTL check of CartServiceLoadTest: once the load stops, every idle session is evicted
+class CartServiceTest {
+
+    @Test
+    void idleSessionsAreEvictedAfterLoad() throws Exception {
+        int products = 1_000;
+        String[] sessions = new String[5_000];
+        for (int i = 0; i < sessions.length; i++) sessions[i] = "session-" + i;
+        try (CartService service = new CartService(500, TimeUnit.MILLISECONDS)) {
+            service.publishCatalog(CartServiceLoadTest.catalog(products, 1.0));
+            CartServiceLoadTest.run(service, sessions, products, 4, 1);
+            assertTrue(service.sessionCount() > 0, "load created sessions");
+
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+            while (service.sessionCount() > 0 && System.nanoTime() < deadline) Thread.sleep(50);
+            assertEquals(0, service.sessionCount());
+        }
+    }
+
+    @Test
+    void activeSessionSurvivesTheSweeper() throws Exception {
+        try (CartService service = new CartService(300, TimeUnit.MILLISECONDS)) {
+            service.publishCatalog(CartServiceLoadTest.catalog(10, 1.0));
+            service.addItem("busy", 1, 1);
+            for (int i = 0; i < 10; i++) {
+                Thread.sleep(100);
+                service.totalCents("busy");
+            }
+            assertEquals(1, service.itemCount("busy"));
+        }
+    }
+}
@@ -0,0 +1,166 @@
+package com.example.trafficapi;
+
+import com.hacktoberfest2025.metrics.Metrics;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.fail;
+
+// Queues and counters rebuilt from the WAL must equal the live ones, however enqueues, passes
+// and snapshots interleave
+class TrafficRecoveryTest {
+    private static final String[] TYPES = {"Car", "Bus", "Ambulance", "Truck"};
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void recoversWhatWasQueuedAndPassed() throws Exception {
+        TrafficWal wal = TrafficWal.open(dir, 2);
+        TrafficSignal[] signals = open(wal);
+        AtomicInteger ids = new AtomicInteger(wal.recovered().nextVehicleId);
+        for (int i = 0; i < 5; i++) signals[i & 1].addVehicle(vehicle(ids.getAndIncrement()));
+        signals[0].processNextVehicle();
+        TrafficSignal.snapshot(wal, signals, ids);
+        signals[1].addVehicles(List.of(vehicle(ids.getAndIncrement()), vehicle(ids.getAndIncrement())));
+        signals[1].processNextVehicle();
+        signals[1].processNextVehicle();
+        wal.close();
+
+        assertRecovered(signals, ids.get());
+    }
+
+    // Equal priorities are served in arrival order, before and after a restart. Ids are reserved
+    // before a vehicle reaches its signal, so arrival order need not follow id order.
+    @Test
+    void keepsArrivalOrderWithinAPriority() throws Exception {
+        TrafficWal wal = TrafficWal.open(dir, 2);
+        TrafficSignal[] signals = open(wal);
+        AtomicInteger ids = new AtomicInteger(wal.recovered().nextVehicleId);
+        int first = ids.getAndAdd(200);
+        for (int i = 199; i >= 0; i--) signals[0].addVehicle(new Vehicle(first + i, "Car", 1 + (i & 1)));
+        for (int i = 0; i < 20; i++) signals[0].processNextVehicle();
+        TrafficSignal.snapshot(wal, signals, ids);
+        first = ids.getAndAdd(200);
+        for (int i = 199; i >= 0; i--) signals[0].addVehicle(new Vehicle(first + i, "Bus", 1 + (i & 1)));
+        for (int i = 0; i < 20; i++) signals[0].processNextVehicle();
+        wal.close();
+
+        assertRecovered(signals, ids.get());
+    }
+
+    @Test
+    void recoversWhileEnqueueServeAndSnapshotInterleave() throws Exception {
+        TrafficWal wal = TrafficWal.open(dir, 2);
+        TrafficSignal[] signals = open(wal);
+        AtomicInteger ids = new AtomicInteger(wal.recovered().nextVehicleId);
+        AtomicBoolean running = new AtomicBoolean(true);
+        List<Thread> threads = new ArrayList<>();
+        for (int p = 0; p < 2; p++) {
+            threads.add(new Thread(() -> {
+                ThreadLocalRandom rnd = ThreadLocalRandom.current();
+                while (running.get()) {
+                    TrafficSignal s = signals[rnd.nextInt(signals.length)];
+                    if (rnd.nextBoolean()) {
+                        s.addVehicle(vehicle(ids.getAndIncrement()));
+                    } else {
+                        int first = ids.getAndAdd(8);
+                        List<Vehicle> batch = new ArrayList<>();
+                        for (int i = 0; i < 8; i++) batch.add(vehicle(first + i));
+                        s.addVehicles(batch);
+                    }
+                }
+            }));
+        }
+        // servers drain right behind the producers, so passes race the enqueues they follow
+        for (TrafficSignal s : signals) {
+            threads.add(new Thread(() -> {
+                while (running.get()) s.processNextVehicle();
+            }));
+        }
+        // snapshots for the first half only, so recovery also replays a long log tail
+        AtomicBoolean snapshotting = new AtomicBoolean(true);
+        Thread snapshotter = new Thread(() -> {
+            while (snapshotting.get()) {
+                try {
+                    TrafficSignal.snapshot(wal, signals, ids);
+                    Thread.sleep(20);
+                } catch (Exception e) {
+                    throw new RuntimeException(e);
+                }
+            }
+        });
+        threads.forEach(Thread::start);
+        snapshotter.start();
+        Thread.sleep(750);
+        snapshotting.set(false);
+        snapshotter.join();
+        Thread.sleep(750);
+        running.set(false);
+        for (Thread t : threads) t.join();
+        wal.close();
+
+        assertTrue(signals[0].totalPassed.get() > 0 && signals[1].totalPassed.get() > 0, "vehicles were served");
+        assertRecovered(signals, ids.get());
+    }
+
+    private void assertRecovered(TrafficSignal[] live, int nextVehicleId) throws Exception {
+        TrafficWal wal = TrafficWal.open(dir, 2);
+        try {
+            TrafficSignal[] recovered = new TrafficSignal[live.length];
+            for (int i = 0; i < live.length; i++) {
+                recovered[i] = new TrafficSignal(live[i].name, i, new Metrics(), null);
+                recovered[i].restore(wal.recovered());
+                List<Integer> expected = ids(live[i]), actual = ids(recovered[i]);
+                if (!expected.equals(actual)) {
+                    Set<Integer> lost = new HashSet<>(expected), resurrected = new HashSet<>(actual);
+                    lost.removeAll(actual);
+                    resurrected.removeAll(expected);
+                    fail(live[i].name + ": lost " + lost.size() + ", resurrected " + resurrected.size()
+                            + " vehicles, " + expected.size() + " queued before and " + actual.size() + " after"
+                            + (lost.isEmpty() && resurrected.isEmpty() ? " in a different service order" : ""));
+                }
+                assertEquals(live[i].totalPassed.get(), recovered[i].totalPassed.get(), "passed at " + live[i].name);
+                assertEquals(live[i].emergencyCount.get(), recovered[i].emergencyCount.get(), "emergencies at " + live[i].name);
+            }
+            assertTrue(wal.recovered().nextVehicleId <= nextVehicleId);
+            for (TrafficSignal s : live) {
+                for (Vehicle v : s.queuedVehicles()) assertTrue(v.id < wal.recovered().nextVehicleId, "vehicle id reused");
+            }
+        } finally {
+            wal.close();
+        }
+    }
+
+    private static TrafficSignal[] open(TrafficWal wal) {
+        TrafficSignal[] signals = new TrafficSignal[2];
+        for (int i = 0; i < signals.length; i++) {
+            signals[i] = new TrafficSignal("Signal " + i, i, new Metrics(), null);
+            signals[i].restore(wal.recovered());
+            signals[i].wal = wal;
+        }
+        return signals;
+    }
+
+    private static Vehicle vehicle(int id) {
+        return new Vehicle(id, TYPES[id & 3], 1 + id % 5);
+    }
+
+    // Queued vehicle ids in service order
+    private static List<Integer> ids(TrafficSignal s) {
+        List<Integer> ids = new ArrayList<>();
+        for (Vehicle v : s.queuedVehicles()) ids.add(v.id);
+        return ids;
+    }
+}